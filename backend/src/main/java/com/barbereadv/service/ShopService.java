@@ -1,27 +1,66 @@
 package com.barberease.service;
 
 import com.barberease.model.Shop;
+import com.barberease.model.Staff;
+import com.barberease.repository.CatalogueReadRepository;
+import com.barberease.repository.PartialUpdateRepository;
 import com.barberease.repository.ShopRepository;
+import com.barberease.repository.StaffRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 @Service
 public class ShopService {
     
     @Autowired
     private ShopRepository shopRepository;
     
+    @Autowired
+    private StaffRepository staffRepository;
+    
+    @Autowired
+    private ShopDirectory shopDirectory;
+    
+    @Autowired
+    private CatalogueSearchIndex catalogueSearchIndex;
+    
+    @Autowired
+    private CatalogueReadRepository catalogueReadRepository;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private PartialUpdateRepository partialUpdates;
+    
+    @Autowired
+    private StaffScheduleService staffScheduleService;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
     public Shop createShop(Shop shop, String ownerId) {
         shop.setOwnerId(ownerId);
+        shop.setVersion(null);
+        shop.setOpenIntervals(OpeningHours.weeklyIntervals(shop.getBusinessHours()));
         shop.setCreatedAt(LocalDateTime.now());
         shop.setUpdatedAt(LocalDateTime.now());
-        return shopRepository.save(shop);
+        Shop savedShop = shopRepository.save(shop);
+        shopDirectory.rebuild();
+        catalogueSearchIndex.indexShop(savedShop);
+        return savedShop;
     }
     
     public List<Shop> getShopsByOwner(String ownerId) {
@@ -34,32 +73,72 @@ public class ShopService {
                 .orElseThrow(() -> new RuntimeException("Shop not found with id: " + id));
     }
     
+    /**
+     * Applies the owner's edits to the latest stored shop. If shopDetails
+     * carries a version, the edit is rejected once the shop has changed since.
+     */
     @CacheEvict(value = "shops", key = "#id")
     public Shop updateShop(String id, Shop shopDetails) {
-        Shop shop = getShopById(id);
-        
-        shop.setName(shopDetails.getName());
-        shop.setAddress(shopDetails.getAddress());
-        shop.setPhone(shopDetails.getPhone());
-        shop.setEmail(shopDetails.getEmail());
-        shop.setDescription(shopDetails.getDescription());
-        shop.setBusinessHours(shopDetails.getBusinessHours());
-        shop.setSettings(shopDetails.getSettings());
-        shop.setUpdatedAt(LocalDateTime.now());
-        
-        return shopRepository.save(shop);
+        Shop savedShop = optimisticRetry.run("shop", () -> {
+            Shop shop = getShopById(id);
+            optimisticRetry.checkVersion("shop", id, shopDetails.getVersion(), shop.getVersion());
+            
+            shop.setName(shopDetails.getName());
+            shop.setAddress(shopDetails.getAddress());
+            shop.setPhone(shopDetails.getPhone());
+            shop.setEmail(shopDetails.getEmail());
+            shop.setDescription(shopDetails.getDescription());
+            shop.setBusinessHours(shopDetails.getBusinessHours());
+            shop.setOpenIntervals(OpeningHours.weeklyIntervals(shopDetails.getBusinessHours()));
+            // The owner's edit form sends neither coordinates nor holidays; keep them unless given
+            if (shopDetails.getLocation() != null) {
+                shop.setLocation(shopDetails.getLocation());
+            }
+            if (shopDetails.getClosedDates() != null) {
+                shop.setClosedDates(shopDetails.getClosedDates());
+            }
+            shop.setSettings(shopDetails.getSettings());
+            shop.setUpdatedAt(LocalDateTime.now());
+            
+            return shopRepository.save(shop);
+        });
+        shopDirectory.rebuild();
+        catalogueSearchIndex.indexShop(savedShop);
+        // Hours, holidays and slot settings feed every staff member's schedule
+        for (Staff staff : staffRepository.findByShopIdAndActive(id, true)) {
+            staffScheduleService.recompile(staff, savedShop);
+        }
+        return savedShop;
     }
     
     @CacheEvict(value = "shops", key = "#id")
     public void deleteShop(String id) {
-        Shop shop = getShopById(id);
-        shop.setActive(false);
-        shop.setUpdatedAt(LocalDateTime.now());
-        shopRepository.save(shop);
+        Shop shop = partialUpdates.updateAndGet(where("id").is(id), new Update().set("active", false), Shop.class);
+        if (shop == null) {
+            throw new RuntimeException("Shop not found with id: " + id);
+        }
+        shopDirectory.rebuild();
+        catalogueSearchIndex.removeShop(id);
     }
     
     public List<Shop> getActiveShops() {
-        return shopRepository.findByActive(true);
+        return catalogueReadRepository.findActiveShops();
+    }
+    
+    /**
+     * Recomputes the categories the shop offers from its active services, so the
+     * nearby search can filter by category without joining services.
+     */
+    @CacheEvict(value = "shops", key = "#shopId")
+    public void refreshServiceCategories(String shopId) {
+        List<com.barberease.model.Service.ServiceCategory> categories = mongoTemplate.findDistinct(
+                query(where("shopId").is(shopId).and("active").is(true)), "category",
+                com.barberease.model.Service.class, com.barberease.model.Service.ServiceCategory.class);
+        mongoTemplate.updateFirst(query(where("id").is(shopId)),
+                new Update().set("serviceCategories", categories.isEmpty()
+                        ? EnumSet.noneOf(com.barberease.model.Service.ServiceCategory.class)
+                        : EnumSet.copyOf(categories)),
+                Shop.class);
     }
 }
 
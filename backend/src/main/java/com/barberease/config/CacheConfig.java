@@ -1,8 +1,10 @@
 package com.barberease.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,23 +14,53 @@ import java.util.Arrays;
 /**
  * Cache Configuration
  * 
- * Currently using in-memory caching with ConcurrentHashMap
+ * In-memory Caffeine caches, each bounded by size and expired after write.
+ * Specs use Caffeine's spec syntax and can be overridden per cache through
+ * barberease.cache.*. Statistics are recorded so that Spring Boot publishes
+ * cache.gets/cache.evictions/cache.size metrics for every cache.
  * For production, consider switching to Redis for distributed caching
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
+    @Value("${barberease.cache.shops:maximumSize=2000,expireAfterWrite=10m}")
+    private String shopsSpec;
+    
+    @Value("${barberease.cache.services:maximumSize=5000,expireAfterWrite=10m}")
+    private String servicesSpec;
+    
+    @Value("${barberease.cache.services-by-shop:maximumSize=2000,expireAfterWrite=10m}")
+    private String servicesByShopSpec;
+    
+    @Value("${barberease.cache.staff:maximumSize=5000,expireAfterWrite=10m}")
+    private String staffSpec;
+    
+    @Value("${barberease.cache.staff-by-shop:maximumSize=2000,expireAfterWrite=10m}")
+    private String staffByShopSpec;
+    
+    @Value("${barberease.cache.staff-schedules:maximumSize=5000,expireAfterWrite=10m}")
+    private String staffSchedulesSpec;
+    
+    @Value("${barberease.cache.users:maximumSize=10000,expireAfterWrite=60s}")
+    private String usersSpec;
+    
     @Bean
     public CacheManager cacheManager() {
         SimpleCacheManager cacheManager = new SimpleCacheManager();
         cacheManager.setCaches(Arrays.asList(
-            new ConcurrentMapCache("shops"),
-            new ConcurrentMapCache("services"),
-            new ConcurrentMapCache("staff"),
-            new ConcurrentMapCache("users")
+            buildCache("shops", shopsSpec),
+            buildCache("services", servicesSpec),
+            buildCache("servicesByShop", servicesByShopSpec),
+            buildCache("staff", staffSpec),
+            buildCache("staffByShop", staffByShopSpec),
+            buildCache("staffSchedules", staffSchedulesSpec),
+            buildCache("users", usersSpec)
         ));
         return cacheManager;
     }
+    
+    private CaffeineCache buildCache(String name, String spec) {
+        return new CaffeineCache(name, Caffeine.from(spec).recordStats().build());
+    }
 }
-
@@ -0,0 +1,315 @@
+package com.barberease.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Command- and pool-level Mongo instrumentation.
+ *
+ * Records a latency histogram and a returned-documents summary per collection
+ * and command, plus connection pool gauges for checked-out connections and the
+ * wait queue, and a timer for time spent waiting for a connection. Commands
+ * slower than slow-command-ms are kept, with their filter shape (values replaced
+ * by "?"), in a bounded buffer that the mongoslow actuator endpoint lists
+ * slowest first; SecurityConfig restricts it to admins. Registered on the
+ * client by MongoConfig.
+ */
+@Component
+@Endpoint(id = "mongoslow")
+public class MongoCommandMetrics implements CommandListener, ConnectionPoolListener {
+    
+    private static final Set<String> UNTRACKED_COMMANDS = Set.of(
+            "hello", "ismaster", "isMaster", "ping", "buildInfo", "saslStart", "saslContinue",
+            "getLastError", "endSessions", "killCursors");
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${barberease.mongo.slow-command-ms:100}")
+    private long slowCommandMs;
+    
+    @Value("${barberease.mongo.slow-command-buffer:50}")
+    private int slowCommandBuffer;
+    
+    private final Map<Integer, StartedCommand> inFlight = new ConcurrentHashMap<>();
+    private final Deque<SlowCommand> slowCommands = new ArrayDeque<>();
+    private final AtomicInteger checkedOut = new AtomicInteger();
+    private final AtomicInteger waitQueue = new AtomicInteger();
+    private Timer checkoutWait;
+    
+    private static class StartedCommand {
+        final String collection;
+        final String commandName;
+        final String shape;
+        
+        StartedCommand(String collection, String commandName, String shape) {
+            this.collection = collection;
+            this.commandName = commandName;
+            this.shape = shape;
+        }
+    }
+    
+    public static class SlowCommand {
+        private final Instant at;
+        private final String collection;
+        private final String command;
+        private final String shape;
+        private final long durationMs;
+        
+        SlowCommand(Instant at, String collection, String command, String shape, long durationMs) {
+            this.at = at;
+            this.collection = collection;
+            this.command = command;
+            this.shape = shape;
+            this.durationMs = durationMs;
+        }
+        
+        public Instant getAt() {
+            return at;
+        }
+        
+        public String getCollection() {
+            return collection;
+        }
+        
+        public String getCommand() {
+            return command;
+        }
+        
+        public String getShape() {
+            return shape;
+        }
+        
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+    
+    @PostConstruct
+    public void registerPoolMeters() {
+        Gauge.builder("mongodb.pool.checkedout", checkedOut, AtomicInteger::get)
+                .description("Connections currently checked out of the pool")
+                .register(meterRegistry);
+        Gauge.builder("mongodb.pool.waitqueue", waitQueue, AtomicInteger::get)
+                .description("Operations waiting for a connection")
+                .register(meterRegistry);
+        checkoutWait = Timer.builder("mongodb.pool.wait")
+                .description("Time spent waiting to check out a connection")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+    
+    @ReadOperation
+    public List<SlowCommand> slowCommands() {
+        List<SlowCommand> snapshot;
+        synchronized (slowCommands) {
+            snapshot = new ArrayList<>(slowCommands);
+        }
+        snapshot.sort(Comparator.comparingLong(SlowCommand::getDurationMs).reversed());
+        return snapshot;
+    }
+    
+    // CommandListener
+    
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (UNTRACKED_COMMANDS.contains(event.getCommandName())) {
+            return;
+        }
+        BsonDocument command = event.getCommand();
+        inFlight.put(event.getRequestId(), new StartedCommand(
+                collectionOf(event.getCommandName(), command),
+                event.getCommandName(),
+                shapeOf(event.getCommandName(), command)));
+    }
+    
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        if (started == null) {
+            return;
+        }
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        record(started, "success", nanos);
+        
+        int returned = documentsReturned(event.getResponse());
+        if (returned >= 0) {
+            DistributionSummary.builder("mongodb.command.documents")
+                    .description("Documents returned per command")
+                    .tag("collection", started.collection)
+                    .tag("command", started.commandName)
+                    .register(meterRegistry)
+                    .record(returned);
+        }
+    }
+    
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        StartedCommand started = inFlight.remove(event.getRequestId());
+        if (started != null) {
+            record(started, "failure", event.getElapsedTime(TimeUnit.NANOSECONDS));
+        }
+    }
+    
+    private void record(StartedCommand started, String outcome, long nanos) {
+        Timer.builder("mongodb.command")
+                .description("Mongo command latency")
+                .tag("collection", started.collection)
+                .tag("command", started.commandName)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (millis >= slowCommandMs) {
+            synchronized (slowCommands) {
+                if (slowCommands.size() >= slowCommandBuffer) {
+                    slowCommands.removeFirst();
+                }
+                slowCommands.addLast(new SlowCommand(Instant.now(), started.collection,
+                        started.commandName, started.shape, millis));
+            }
+        }
+    }
+    
+    // ConnectionPoolListener
+    
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        waitQueue.incrementAndGet();
+    }
+    
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waitQueue.decrementAndGet();
+        checkedOut.incrementAndGet();
+        checkoutWait.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waitQueue.decrementAndGet();
+        checkoutWait.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrementAndGet();
+    }
+    
+    static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue target = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return target != null && target.isString() ? target.asString().getValue() : "unknown";
+    }
+    
+    /**
+     * The command's filter with every literal replaced by "?", so commands that
+     * differ only in their parameters share one shape.
+     */
+    static String shapeOf(String commandName, BsonDocument command) {
+        BsonValue filter;
+        switch (commandName) {
+            case "find":
+                filter = command.get("filter");
+                break;
+            case "count":
+            case "findAndModify":
+                filter = command.get("query");
+                break;
+            case "update":
+                filter = firstStatementField(command.get("updates"), "q");
+                break;
+            case "delete":
+                filter = firstStatementField(command.get("deletes"), "q");
+                break;
+            case "aggregate":
+                filter = command.get("pipeline");
+                break;
+            default:
+                return commandName;
+        }
+        BsonValue sort = command.get("sort");
+        String shape = filter == null ? "{}" : redact(filter).toString();
+        return sort == null ? shape : shape + " sort " + sort;
+    }
+    
+    private static BsonValue firstStatementField(BsonValue statements, String field) {
+        if (statements != null && statements.isArray() && !statements.asArray().isEmpty()
+                && statements.asArray().get(0).isDocument()) {
+            return statements.asArray().get(0).asDocument().get(field);
+        }
+        return null;
+    }
+    
+    private static BsonValue redact(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument redacted = new BsonDocument();
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                redacted.append(entry.getKey(), redact(entry.getValue()));
+            }
+            return redacted;
+        }
+        if (value.isArray()) {
+            BsonArray redacted = new BsonArray();
+            for (BsonValue element : value.asArray()) {
+                if (element.isDocument() || element.isArray()) {
+                    redacted.add(redact(element));
+                }
+            }
+            return redacted.isEmpty() ? new BsonString("?") : redacted;
+        }
+        return new BsonString("?");
+    }
+    
+    private static int documentsReturned(BsonDocument response) {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonDocument cursorDocument = cursor.asDocument();
+            BsonValue batch = cursorDocument.containsKey("firstBatch")
+                    ? cursorDocument.get("firstBatch") : cursorDocument.get("nextBatch");
+            if (batch != null && batch.isArray()) {
+                return batch.asArray().size();
+            }
+        }
+        BsonValue value = response.get("value");
+        if (value != null) {
+            // findAndModify
+            return value.isNull() ? 0 : 1;
+        }
+        return -1;
+    }
+}
@@ -1,10 +1,13 @@
 package com.barberease.config;
 
+import com.fasterxml.jackson.databind.Module;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.MongoDatabaseFactory;
 import org.springframework.data.mongodb.MongoTransactionManager;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.geo.GeoJsonModule;
 
 import java.util.ArrayList;
 
@@ -16,6 +19,19 @@ public class MongoConfig {
         return new MongoTransactionManager(dbFactory);
     }
     
+    @Bean
+    public MongoClientSettingsBuilderCustomizer commandMetricsCustomizer(MongoCommandMetrics commandMetrics) {
+        return builder -> builder
+                .addCommandListener(commandMetrics)
+                .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(commandMetrics));
+    }
+    
+    // Reads and writes GeoJSON points, e.g. Shop.location, as {"type": "Point", "coordinates": [lng, lat]}
+    @Bean
+    public Module geoJsonModule() {
+        return GeoJsonModule.geoJsonModule();
+    }
+    
     @Bean
     public MongoCustomConversions customConversions() {
         return new MongoCustomConversions(new ArrayList<>());
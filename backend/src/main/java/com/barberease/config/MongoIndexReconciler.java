@@ -0,0 +1,342 @@
+package com.barberease.config;
+
+import com.barberease.model.Booking;
+import com.barberease.model.Payment;
+import com.barberease.model.Notification;
+import com.barberease.model.Shop;
+import com.barberease.model.Staff;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps Mongo indexes in line with the queries the repositories actually run.
+ *
+ * Each hot query shape is declared here with Java property names and translated
+ * to stored field names through the mapping context, so @Field renames are
+ * always honoured. After startup the reconciler creates the missing indexes of
+ * these shapes and of the entity annotations, reports (and optionally drops)
+ * indexes that no query shape or entity annotation needs, and explains every
+ * hot query. If any of them would still scan the whole collection, readiness
+ * is set to REFUSING_TRAFFIC and the mongoIndexes health check reports
+ * OUT_OF_SERVICE.
+ */
+@Component("mongoIndexes")
+public class MongoIndexReconciler implements HealthIndicator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexReconciler.class);
+    
+    static final List<QueryShape> HOT_QUERIES = List.of(
+        // findActiveBookingsByStaffAndDateRange, findByStaffIdAndAppointmentDateTimeBetween and
+        // findOverlappingActiveBookings; served by the staff_interval index declared on Booking
+        new QueryShape(Booking.class, "staff_appointment", List.of("staffId"), "appointmentDateTime"),
+        // findActiveBookingsByShopAndDateRange, findByShopIdAndAppointmentDateTimeBetween
+        new QueryShape(Booking.class, "shop_appointment", List.of("shopId"), "appointmentDateTime"),
+        new QueryShape(Booking.class, "user_appointment", List.of("userId"), "appointmentDateTime"),
+        new QueryShape(Staff.class, "shop_active_staff", List.of("shopId", "active"), null),
+        new QueryShape(com.barberease.model.Service.class, "shop_active_services", List.of("shopId", "active"), null),
+        new QueryShape(com.barberease.model.Service.class, "category_active_services", List.of("category", "active"), null),
+        new QueryShape(Shop.class, "owner_shops", List.of("ownerId"), null),
+        new QueryShape(Shop.class, "active_shops", List.of("active"), "name"),
+        new QueryShape(Payment.class, "booking_payment", List.of("bookingId"), null),
+        new QueryShape(Payment.class, "razorpay_order", List.of("razorpayOrderId"), null),
+        new QueryShape(Notification.class, "booking_notifications", List.of("bookingId"), null)
+    );
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Value("${barberease.indexes.reconcile:true}")
+    private boolean reconcileOnStartup;
+    
+    @Value("${barberease.indexes.drop-unused:false}")
+    private boolean dropUnused;
+    
+    private volatile Health health = Health.unknown().withDetail("state", "pending").build();
+    
+    /**
+     * A query that must be served by an index: equality predicates followed by an
+     * optional range or sort property, in that order in the index.
+     */
+    static class QueryShape {
+        final Class<?> entityType;
+        final String indexName;
+        final List<String> equalityProperties;
+        final String rangeProperty;
+        
+        QueryShape(Class<?> entityType, String indexName, List<String> equalityProperties, String rangeProperty) {
+            this.entityType = entityType;
+            this.indexName = indexName;
+            this.equalityProperties = equalityProperties;
+            this.rangeProperty = rangeProperty;
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileInBackground() {
+        if (!reconcileOnStartup) {
+            health = Health.up().withDetail("state", "disabled").build();
+            return;
+        }
+        Thread reconciler = new Thread(() -> {
+            try {
+                reconcile();
+            } catch (Exception e) {
+                logger.error("Mongo index reconciliation failed", e);
+                health = Health.unknown().withDetail("state", "failed").withDetail("error", e.getMessage()).build();
+            }
+        }, "mongo-index-reconciler");
+        reconciler.setDaemon(true);
+        reconciler.start();
+    }
+    
+    public synchronized void reconcile() {
+        List<String> created = new ArrayList<>();
+        List<String> unused = new ArrayList<>();
+        List<String> collectionScans = new ArrayList<>();
+        
+        Map<String, List<List<String>>> requiredByCollection = new LinkedHashMap<>();
+        Set<Class<?>> entityTypes = new LinkedHashSet<>();
+        for (MongoPersistentEntity<?> entity : mappingContext().getPersistentEntities()) {
+            if (entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                entityTypes.add(entity.getType());
+            }
+        }
+        
+        // Indexes declared on the entities carry constraints such as slot_claims' unique and TTL
+        // indexes. auto-index-creation is off in production, so they are created here as well.
+        IndexResolver resolver = IndexResolver.create(mappingContext());
+        for (Class<?> type : entityTypes) {
+            String collection = mongoTemplate.getCollectionName(type);
+            IndexOperations indexOps = mongoTemplate.indexOps(collection);
+            List<IndexInfo> existing = indexOps.getIndexInfo();
+            for (IndexDefinition definition : resolver.resolveIndexFor(type)) {
+                List<String> fields = new ArrayList<>(definition.getIndexKeys().keySet());
+                requiredByCollection.computeIfAbsent(collection, c -> new ArrayList<>()).add(fields);
+                
+                IndexInfo same = withKeys(fields, existing);
+                String name = definition.getIndexOptions().getString("name");
+                if (same == null) {
+                    try {
+                        indexOps.ensureIndex(definition);
+                        created.add(collection + "." + name);
+                        logger.info("Created index {} on {} {}", name, collection, fields);
+                    } catch (Exception e) {
+                        logger.error("Could not create index {} on {}", name, collection, e);
+                    }
+                } else if (definition.getIndexOptions().getBoolean("unique", false) && !same.isUnique()) {
+                    logger.error("Index {} on {} should be unique but {} is not", name, collection, same.getName());
+                }
+            }
+        }
+        
+        for (QueryShape shape : HOT_QUERIES) {
+            String collection = mongoTemplate.getCollectionName(shape.entityType);
+            List<String> fields = fieldNames(shape);
+            requiredByCollection.computeIfAbsent(collection, c -> new ArrayList<>()).add(fields);
+            
+            IndexOperations indexOps = mongoTemplate.indexOps(collection);
+            if (!isServed(fields, indexOps.getIndexInfo())) {
+                Index index = new Index().named(shape.indexName).background();
+                for (String field : fields) {
+                    index.on(field, Sort.Direction.ASC);
+                }
+                try {
+                    indexOps.ensureIndex(index);
+                    created.add(collection + "." + shape.indexName);
+                    logger.info("Created index {} on {} {}", shape.indexName, collection, fields);
+                } catch (Exception e) {
+                    logger.error("Could not create index {} on {}", shape.indexName, collection, e);
+                }
+            }
+        }
+        
+        for (Map.Entry<String, List<List<String>>> entry : requiredByCollection.entrySet()) {
+            String collection = entry.getKey();
+            IndexOperations indexOps = mongoTemplate.indexOps(collection);
+            for (IndexInfo info : indexOps.getIndexInfo()) {
+                if (isNeeded(info, entry.getValue())) {
+                    continue;
+                }
+                unused.add(collection + "." + info.getName());
+                if (dropUnused) {
+                    indexOps.dropIndex(info.getName());
+                    logger.info("Dropped unused index {} on {}", info.getName(), collection);
+                } else {
+                    logger.warn("Index {} on {} does not serve any known query", info.getName(), collection);
+                }
+            }
+        }
+        
+        for (QueryShape shape : HOT_QUERIES) {
+            String collection = mongoTemplate.getCollectionName(shape.entityType);
+            if (usesCollectionScan(collection, probeFilter(shape))) {
+                collectionScans.add(collection + "." + shape.indexName);
+                logger.error("Hot query {} on {} is planned as a COLLSCAN", shape.indexName, collection);
+            }
+        }
+        
+        Health.Builder builder = collectionScans.isEmpty() ? Health.up() : Health.outOfService();
+        health = builder
+                .withDetail("created", created)
+                .withDetail(dropUnused ? "dropped" : "unused", unused)
+                .withDetail("collectionScans", collectionScans)
+                .build();
+        AvailabilityChangeEvent.publish(eventPublisher, this,
+                collectionScans.isEmpty() ? ReadinessState.ACCEPTING_TRAFFIC : ReadinessState.REFUSING_TRAFFIC);
+    }
+    
+    @Override
+    public Health health() {
+        return health;
+    }
+    
+    List<String> fieldNames(QueryShape shape) {
+        MongoPersistentEntity<?> entity = mappingContext().getRequiredPersistentEntity(shape.entityType);
+        List<String> fields = new ArrayList<>();
+        for (String property : shape.equalityProperties) {
+            fields.add(entity.getRequiredPersistentProperty(property).getFieldName());
+        }
+        if (shape.rangeProperty != null) {
+            fields.add(entity.getRequiredPersistentProperty(shape.rangeProperty).getFieldName());
+        }
+        return fields;
+    }
+    
+    /**
+     * An index serves a shape when its leading keys are the shape's fields, in
+     * order. Directions are ignored: a single range or sort key can be walked
+     * either way.
+     */
+    static boolean isServed(List<String> fields, List<IndexInfo> indexes) {
+        for (IndexInfo info : indexes) {
+            if (startsWith(keys(info), fields)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * The existing index on exactly these keys, in order, if any. Entity indexes
+     * may already exist under another name, e.g. from scripts/mongo-init.js.
+     */
+    static IndexInfo withKeys(List<String> fields, List<IndexInfo> indexes) {
+        for (IndexInfo info : indexes) {
+            if (keys(info).equals(fields)) {
+                return info;
+            }
+        }
+        return null;
+    }
+    
+    static boolean isNeeded(IndexInfo info, List<List<String>> required) {
+        // Never touch _id, uniqueness or TTL constraints, or special index types
+        if (info.getName().equals("_id_") || info.isUnique() || info.getExpireAfter().isPresent()) {
+            return true;
+        }
+        for (IndexField field : info.getIndexFields()) {
+            if (field.getDirection() == null) {
+                return true;
+            }
+        }
+        List<String> keys = keys(info);
+        for (List<String> fields : required) {
+            if (startsWith(keys, fields)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static List<String> keys(IndexInfo info) {
+        List<String> keys = new ArrayList<>();
+        for (IndexField field : info.getIndexFields()) {
+            keys.add(field.getKey());
+        }
+        return keys;
+    }
+    
+    private static boolean startsWith(List<String> keys, List<String> prefix) {
+        return keys.size() >= prefix.size() && keys.subList(0, prefix.size()).equals(prefix);
+    }
+    
+    Document probeFilter(QueryShape shape) {
+        List<String> fields = fieldNames(shape);
+        Document filter = new Document();
+        for (int i = 0; i < shape.equalityProperties.size(); i++) {
+            filter.append(fields.get(i), "probe");
+        }
+        if (shape.rangeProperty != null) {
+            filter.append(fields.get(fields.size() - 1), new Document("$gte", new Date(0)));
+        }
+        return filter;
+    }
+    
+    boolean usesCollectionScan(String collection, Document filter) {
+        Document explain = mongoTemplate.getDb().runCommand(new Document("explain",
+                new Document("find", collection).append("filter", filter))
+                .append("verbosity", "queryPlanner"));
+        Object queryPlanner = explain.get("queryPlanner");
+        return queryPlanner instanceof Document
+                && containsStage(((Document) queryPlanner).get("winningPlan"), "COLLSCAN");
+    }
+    
+    private static boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Document) {
+            Document document = (Document) plan;
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            for (Object value : document.values()) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        } else if (plan instanceof List) {
+            for (Object value : (List<?>) plan) {
+                if (containsStage(value, stage)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext() {
+        return (MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty>) mongoTemplate.getConverter().getMappingContext();
+    }
+}
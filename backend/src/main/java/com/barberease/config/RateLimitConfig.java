@@ -1,19 +1,22 @@
 package com.barberease.config;
 
+import com.barberease.security.RateLimitFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 /**
  * Rate Limiting Configuration
- * 
- * For production, integrate with Redis or use a library like Bucket4j
- * This is a placeholder for future implementation
+ *
+ * Limits are enforced in-process by RateLimitFilter, which runs inside the
+ * security filter chain. With several backend instances each one enforces the
+ * limits on its own; nginx applies the same public and login limits at the edge.
  */
 @Configuration
 public class RateLimitConfig {
     
-    // Rate limiting configuration
-    // TODO: Implement with Redis and Bucket4j
-    
     /**
      * API rate limits:
      * - Public endpoints: 100 requests per minute
@@ -24,5 +27,21 @@ public class RateLimitConfig {
     public static final int PUBLIC_RATE_LIMIT = 100;
     public static final int AUTH_RATE_LIMIT = 1000;
     public static final int LOGIN_RATE_LIMIT = 5;
+    
+    public static final Duration PUBLIC_RATE_PERIOD = Duration.ofMinutes(1);
+    public static final Duration AUTH_RATE_PERIOD = Duration.ofHours(1);
+    public static final Duration LOGIN_RATE_PERIOD = Duration.ofMinutes(1);
+    
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter();
+    }
+    
+    // Registered in the security filter chain only, not as a plain servlet filter
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
 }
-
@@ -1,17 +1,26 @@
 package com.barberease.controller;
 
 import com.barberease.dto.BookingRequest;
+import com.barberease.dto.CursorPage;
+import com.barberease.dto.StaffAvailabilityDto;
 import com.barberease.model.Booking;
+import com.barberease.service.BookingExportService;
 import com.barberease.service.BookingService;
 import com.barberease.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api")
@@ -21,22 +30,32 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
     
+    @Autowired
+    private BookingExportService bookingExportService;
+    
     @Autowired
     private AuthService authService;
     
     @PostMapping("/bookings")
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
     public ResponseEntity<Booking> createBooking(@Valid @RequestBody BookingRequest bookingRequest) {
-        Booking booking = bookingService.createBooking(bookingRequest, authService.getCurrentUser().getId());
+        Booking booking = bookingService.createBooking(bookingRequest, authService.getCurrentUserId());
         return ResponseEntity.ok(booking);
     }
     
     @GetMapping("/bookings")
     public ResponseEntity<List<Booking>> getBookings() {
-        List<Booking> bookings = bookingService.getBookingsByUser(authService.getCurrentUser().getId());
+        List<Booking> bookings = bookingService.getBookingsByUser(authService.getCurrentUserId());
         return ResponseEntity.ok(bookings);
     }
     
+    @GetMapping("/bookings/page")
+    public ResponseEntity<CursorPage<Booking>> getBookingsPage(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(required = false) Integer limit) {
+        CursorPage<Booking> page = bookingService.getBookingsByUser(authService.getCurrentUserId(), cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
     @GetMapping("/bookings/{id}")
     public ResponseEntity<Booking> getBooking(@PathVariable String id) {
         Booking booking = bookingService.getBookingById(id);
@@ -65,6 +84,46 @@ public class BookingController {
         return ResponseEntity.ok(bookings);
     }
     
+    @GetMapping("/shops/{shopId}/bookings/page")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SHOP_OWNER') or hasRole('STAFF')")
+    public ResponseEntity<CursorPage<Booking>> getBookingsPageByShop(@PathVariable String shopId,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    @RequestParam(required = false) Integer limit) {
+        CursorPage<Booking> page = bookingService.getBookingsByShop(shopId, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/shops/{shopId}/bookings/export")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SHOP_OWNER')")
+    public ResponseEntity<StreamingResponseBody> exportBookingsByShop(@PathVariable String shopId,
+                                                                      @RequestParam(defaultValue = "ndjson") String format,
+                                                                      @RequestParam(required = false) LocalDateTime startDate,
+                                                                      @RequestParam(required = false) LocalDateTime endDate,
+                                                                      @RequestParam(defaultValue = "false") boolean gzip) {
+        BookingExportService.ExportFormat exportFormat = BookingExportService.ExportFormat.from(format);
+        
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                // syncFlush so that each flush of the exporter reaches the client
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out, 8192, true)) {
+                    bookingExportService.exportShopBookings(shopId, startDate, endDate, exportFormat, gzipOut);
+                }
+            } else {
+                bookingExportService.exportShopBookings(shopId, startDate, endDate, exportFormat, out);
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("bookings-" + shopId + "." + exportFormat.getExtension())
+                        .build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+    
     @GetMapping("/staff/{staffId}/bookings")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SHOP_OWNER') or hasRole('STAFF')")
     public ResponseEntity<List<Booking>> getBookingsByStaff(@PathVariable String staffId,
@@ -82,5 +141,13 @@ public class BookingController {
         List<LocalDateTime> slots = bookingService.getAvailableSlots(shopId, staffId, serviceId, date);
         return ResponseEntity.ok(slots);
     }
+    
+    @GetMapping("/shops/{shopId}/availability")
+    public ResponseEntity<List<StaffAvailabilityDto>> getShopAvailability(@PathVariable String shopId,
+                                                                          @RequestParam String serviceId,
+                                                                          @RequestParam LocalDate startDate,
+                                                                          @RequestParam LocalDate endDate) {
+        List<StaffAvailabilityDto> availability = bookingService.getShopAvailability(shopId, serviceId, startDate, endDate);
+        return ResponseEntity.ok(availability);
+    }
 }
-
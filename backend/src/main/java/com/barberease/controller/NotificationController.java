@@ -1,5 +1,6 @@
 package com.barberease.controller;
 
+import com.barberease.dto.CursorPage;
 import com.barberease.model.Notification;
 import com.barberease.service.NotificationService;
 import com.barberease.service.AuthService;
@@ -22,11 +23,18 @@ public class NotificationController {
     
     @GetMapping
     public ResponseEntity<List<Notification>> getUserNotifications() {
-        String userId = authService.getCurrentUser().getId();
+        String userId = authService.getCurrentUserId();
         List<Notification> notifications = notificationService.getNotificationsByUser(userId);
         return ResponseEntity.ok(notifications);
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<CursorPage<Notification>> getUserNotificationsPage(@RequestParam(required = false) String cursor,
+                                                                            @RequestParam(required = false) Integer limit) {
+        CursorPage<Notification> page = notificationService.getNotificationsByUser(authService.getCurrentUserId(), cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
     @PostMapping
     public ResponseEntity<Notification> createNotification(@RequestBody Notification notification) {
         Notification createdNotification = notificationService.createNotification(notification);
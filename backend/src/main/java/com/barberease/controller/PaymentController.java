@@ -1,9 +1,13 @@
 package com.barberease.controller;
 
+import com.barberease.dto.CursorPage;
+import com.barberease.exception.PaymentGatewayException;
 import com.barberease.model.Payment;
 import com.barberease.service.PaymentService;
 import com.barberease.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -38,6 +42,15 @@ public class PaymentController {
             response.put("currency", "INR");
             
             return ResponseEntity.ok(response);
+        } catch (PaymentGatewayException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            if (!e.isUnavailable()) {
+                return ResponseEntity.badRequest().body(error);
+            }
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -71,11 +84,19 @@ public class PaymentController {
     @GetMapping("/user")
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
     public ResponseEntity<List<Payment>> getUserPayments() {
-        String userId = authService.getCurrentUser().getId();
+        String userId = authService.getCurrentUserId();
         List<Payment> payments = paymentService.getPaymentsByUser(userId);
         return ResponseEntity.ok(payments);
     }
     
+    @GetMapping("/user/page")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<CursorPage<Payment>> getUserPaymentsPage(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limit) {
+        CursorPage<Payment> page = paymentService.getPaymentsByUser(authService.getCurrentUserId(), cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
     @PostMapping("/{paymentId}/refund")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SHOP_OWNER')")
     public ResponseEntity<Payment> refundPayment(@PathVariable String paymentId) {
@@ -0,0 +1,46 @@
+package com.barberease.controller;
+
+import com.barberease.model.DailyRollup;
+import com.barberease.service.BookingRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api")
+@CrossOrigin(origins = "*")
+public class RollupController {
+    
+    @Autowired
+    private BookingRollupService rollupService;
+    
+    @GetMapping("/shops/{shopId}/rollups")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SHOP_OWNER')")
+    public ResponseEntity<List<DailyRollup>> getRollups(@PathVariable String shopId,
+                                                        @RequestParam LocalDate startDate,
+                                                        @RequestParam LocalDate endDate,
+                                                        @RequestParam(defaultValue = "SHOP") DailyRollup.Scope scope,
+                                                        @RequestParam(required = false) String scopeId) {
+        List<DailyRollup> rollups = rollupService.getRollups(shopId, scope, scopeId, startDate, endDate);
+        return ResponseEntity.ok(rollups);
+    }
+    
+    @PostMapping("/admin/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        boolean started = rollupService.startRebuild();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("started", started);
+        response.put("message", started ? "Rollup rebuild started" : "A rollup rebuild is already running");
+        
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT).body(response);
+    }
+}
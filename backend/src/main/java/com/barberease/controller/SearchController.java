@@ -0,0 +1,24 @@
+package com.barberease.controller;
+
+import com.barberease.dto.SearchHit;
+import com.barberease.service.CatalogueSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/owner")
+@CrossOrigin(origins = "*")
+public class SearchController {
+    
+    @Autowired
+    private CatalogueSearchIndex catalogueSearchIndex;
+    
+    @GetMapping("/public/search")
+    public ResponseEntity<List<SearchHit>> search(@RequestParam String q,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(catalogueSearchIndex.search(q, limit));
+    }
+}
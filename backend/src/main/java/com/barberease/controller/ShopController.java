@@ -1,12 +1,19 @@
 package com.barberease.controller;
 
+import com.barberease.dto.CursorPage;
+import com.barberease.dto.NearbyShop;
+import com.barberease.model.Service;
 import com.barberease.model.Shop;
+import com.barberease.service.NearbyShopService;
+import com.barberease.service.ShopDirectory;
 import com.barberease.service.ShopService;
 import com.barberease.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
@@ -19,20 +26,26 @@ public class ShopController {
     @Autowired
     private ShopService shopService;
     
+    @Autowired
+    private ShopDirectory shopDirectory;
+    
+    @Autowired
+    private NearbyShopService nearbyShopService;
+    
     @Autowired
     private AuthService authService;
     
     @PostMapping("/shops")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SHOP_OWNER')")
     public ResponseEntity<Shop> createShop(@Valid @RequestBody Shop shop) {
-        Shop createdShop = shopService.createShop(shop, authService.getCurrentUser().getId());
+        Shop createdShop = shopService.createShop(shop, authService.getCurrentUserId());
         return ResponseEntity.ok(createdShop);
     }
     
     @GetMapping("/shops")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SHOP_OWNER')")
     public ResponseEntity<List<Shop>> getShops() {
-        List<Shop> shops = shopService.getShopsByOwner(authService.getCurrentUser().getId());
+        List<Shop> shops = shopService.getShopsByOwner(authService.getCurrentUserId());
         return ResponseEntity.ok(shops);
     }
     
@@ -58,9 +71,26 @@ public class ShopController {
     }
     
     @GetMapping("/public/shops")
-    public ResponseEntity<List<Shop>> getPublicShops() {
-        List<Shop> shops = shopService.getActiveShops();
-        return ResponseEntity.ok(shops);
+    public ResponseEntity<byte[]> getPublicShops(WebRequest request) {
+        ShopDirectory.Snapshot directory = shopDirectory.getSnapshot();
+        if (request.checkNotModified(directory.getEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(directory.getEtag())
+                .body(directory.getBody());
+    }
+    
+    @GetMapping("/public/shops/nearby")
+    public ResponseEntity<CursorPage<NearbyShop>> getNearbyShops(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "5") double radiusKm,
+            @RequestParam(required = false) Service.ServiceCategory category,
+            @RequestParam(defaultValue = "false") boolean openNow,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(nearbyShopService.findNearby(lat, lng, radiusKm, category, openNow, cursor, limit));
     }
 }
-
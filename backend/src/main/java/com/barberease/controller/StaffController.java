@@ -63,5 +63,12 @@ public class StaffController {
         Staff updatedStaff = staffService.updateAvailability(id, staff.getAvailability());
         return ResponseEntity.ok(updatedStaff);
     }
+    
+    @PutMapping("/staff/{id}/exceptions")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SHOP_OWNER') or hasRole('STAFF')")
+    public ResponseEntity<Staff> updateExceptions(@PathVariable String id, @RequestBody Staff staff) {
+        Staff updatedStaff = staffService.updateExceptions(id, staff.getExceptions());
+        return ResponseEntity.ok(updatedStaff);
+    }
 }
 
@@ -0,0 +1,31 @@
+package com.barberease.dto;
+
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+
+/**
+ * A shop summary in nearby search results, with its location and distance.
+ */
+public class NearbyShop extends ShopSummary {
+    private GeoJsonPoint location;
+    private double distanceKm;
+    
+    // Constructors
+    public NearbyShop() {}
+    
+    // Getters and Setters
+    public GeoJsonPoint getLocation() {
+        return location;
+    }
+    
+    public void setLocation(GeoJsonPoint location) {
+        this.location = location;
+    }
+    
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+    
+    public void setDistanceKm(double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+}
@@ -0,0 +1,70 @@
+package com.barberease.dto;
+
+import com.barberease.model.Service;
+
+/**
+ * A typeahead result: a shop, or a service together with its shop.
+ */
+public class SearchHit {
+    public enum Type {
+        SHOP, SERVICE
+    }
+    
+    private Type type;
+    private String id;
+    private String shopId;
+    private String name;
+    private Service.ServiceCategory category;
+    
+    // Constructors
+    public SearchHit() {}
+    
+    public SearchHit(Type type, String id, String shopId, String name, Service.ServiceCategory category) {
+        this.type = type;
+        this.id = id;
+        this.shopId = shopId;
+        this.name = name;
+        this.category = category;
+    }
+    
+    // Getters and Setters
+    public Type getType() {
+        return type;
+    }
+    
+    public void setType(Type type) {
+        this.type = type;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getShopId() {
+        return shopId;
+    }
+    
+    public void setShopId(String shopId) {
+        this.shopId = shopId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public Service.ServiceCategory getCategory() {
+        return category;
+    }
+    
+    public void setCategory(Service.ServiceCategory category) {
+        this.category = category;
+    }
+}
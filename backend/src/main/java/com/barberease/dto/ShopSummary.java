@@ -0,0 +1,58 @@
+package com.barberease.dto;
+
+import com.barberease.model.Shop;
+
+/**
+ * Public directory entry for a shop: only the fields the directory shows.
+ */
+public class ShopSummary {
+    private String id;
+    private String name;
+    private String address;
+    private String phone;
+    private Shop.BusinessHours businessHours;
+    
+    // Constructors
+    public ShopSummary() {}
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getAddress() {
+        return address;
+    }
+    
+    public void setAddress(String address) {
+        this.address = address;
+    }
+    
+    public String getPhone() {
+        return phone;
+    }
+    
+    public void setPhone(String phone) {
+        this.phone = phone;
+    }
+    
+    public Shop.BusinessHours getBusinessHours() {
+        return businessHours;
+    }
+    
+    public void setBusinessHours(Shop.BusinessHours businessHours) {
+        this.businessHours = businessHours;
+    }
+}
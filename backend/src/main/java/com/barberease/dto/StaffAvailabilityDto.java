@@ -0,0 +1,46 @@
+package com.barberease.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class StaffAvailabilityDto {
+    private String staffId;
+    private String staffName;
+    private Map<LocalDate, List<LocalDateTime>> slots;
+    
+    // Constructors
+    public StaffAvailabilityDto() {}
+    
+    public StaffAvailabilityDto(String staffId, String staffName, Map<LocalDate, List<LocalDateTime>> slots) {
+        this.staffId = staffId;
+        this.staffName = staffName;
+        this.slots = slots;
+    }
+    
+    // Getters and Setters
+    public String getStaffId() {
+        return staffId;
+    }
+    
+    public void setStaffId(String staffId) {
+        this.staffId = staffId;
+    }
+    
+    public String getStaffName() {
+        return staffName;
+    }
+    
+    public void setStaffName(String staffName) {
+        this.staffName = staffName;
+    }
+    
+    public Map<LocalDate, List<LocalDateTime>> getSlots() {
+        return slots;
+    }
+    
+    public void setSlots(Map<LocalDate, List<LocalDateTime>> slots) {
+        this.slots = slots;
+    }
+}
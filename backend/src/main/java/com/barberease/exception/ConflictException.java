@@ -0,0 +1,19 @@
+package com.barberease.exception;
+
+/**
+ * A write based on a stale copy of a document. Carries the version the
+ * document has now, so the client can reload it and retry.
+ */
+public class ConflictException extends RuntimeException {
+    
+    private final Long currentVersion;
+    
+    public ConflictException(String message, Long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+    
+    public Long getCurrentVersion() {
+        return currentVersion;
+    }
+}
@@ -1,5 +1,6 @@
 package com.barberease.exception;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -42,6 +43,32 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
     
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<ConflictResponse> handleConflictException(
+            ConflictException ex, WebRequest request) {
+        ConflictResponse error = new ConflictResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                LocalDateTime.now(),
+                request.getDescription(false),
+                ex.getCurrentVersion()
+        );
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+    
+    // Still conflicting after the service's retries ran out
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, WebRequest request) {
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "The resource was modified concurrently, please reload it and try again",
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+    }
+    
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ErrorResponse> handleAuthenticationException(
             AuthenticationException ex, WebRequest request) {
@@ -137,5 +164,22 @@ public class GlobalExceptionHandler {
             this.path = path;
         }
     }
+    
+    // Conflict response, with the version the client should reload
+    public static class ConflictResponse extends ErrorResponse {
+        private Long currentVersion;
+        
+        public ConflictResponse(int status, String message, LocalDateTime timestamp, String path, Long currentVersion) {
+            super(status, message, timestamp, path);
+            this.currentVersion = currentVersion;
+        }
+        
+        public Long getCurrentVersion() {
+            return currentVersion;
+        }
+        
+        public void setCurrentVersion(Long currentVersion) {
+            this.currentVersion = currentVersion;
+        }
+    }
 }
-
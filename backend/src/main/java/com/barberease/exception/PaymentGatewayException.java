@@ -0,0 +1,29 @@
+package com.barberease.exception;
+
+/**
+ * A payment gateway call that failed or was not attempted. A positive
+ * retryAfterSeconds means the gateway is temporarily unavailable (slow, busy or
+ * failing) and the request can be repeated after that long.
+ */
+public class PaymentGatewayException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public PaymentGatewayException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public PaymentGatewayException(String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+    
+    public boolean isUnavailable() {
+        return retryAfterSeconds > 0;
+    }
+}
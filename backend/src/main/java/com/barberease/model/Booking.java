@@ -1,6 +1,8 @@
 package com.barberease.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -9,10 +11,18 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Document(collection = "bookings")
+@CompoundIndex(name = "reminder_due", def = "{'notificationSent': 1, 'appointmentDateTime': 1}")
+@CompoundIndex(name = "user_appointment_page", def = "{'user_id': 1, 'appointmentDateTime': -1, '_id': -1}")
+@CompoundIndex(name = "shop_appointment_page", def = "{'shop_id': 1, 'appointmentDateTime': -1, '_id': -1}")
+@CompoundIndex(name = "staff_interval", def = "{'staff_id': 1, 'appointmentDateTime': 1, 'endDateTime': 1}")
 public class Booking {
     @Id
     private String id;
     
+    // Optimistic locking: incremented on every write, a save with a stale value fails
+    @Version
+    private Long version;
+    
     @Field("shop_id")
     private String shopId;
     
@@ -28,6 +38,9 @@ public class Booking {
     @NotNull(message = "Appointment date and time is required")
     private LocalDateTime appointmentDateTime;
     
+    // Appointment start plus the service's duration and buffer time
+    private LocalDateTime endDateTime;
+    
     private BookingStatus status;
     private String notes;
     
@@ -37,7 +50,7 @@ public class Booking {
     private Double totalAmount;
     private PaymentStatus paymentStatus;
     
-    // Notification status
+    // Reminder notification status
     private boolean notificationSent = false;
     private LocalDateTime notificationSentAt;
     
@@ -90,6 +103,14 @@ public class Booking {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getShopId() {
         return shopId;
     }
@@ -130,6 +151,14 @@ public class Booking {
         this.appointmentDateTime = appointmentDateTime;
     }
     
+    public LocalDateTime getEndDateTime() {
+        return endDateTime;
+    }
+    
+    public void setEndDateTime(LocalDateTime endDateTime) {
+        this.endDateTime = endDateTime;
+    }
+    
     public BookingStatus getStatus() {
         return status;
     }
@@ -0,0 +1,143 @@
+package com.barberease.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Booking and payment counters for one shop, staff member or service on one
+ * appointment day. The id is derived from scope, scopeId and day so that
+ * updates can upsert without reading first.
+ */
+@Document(collection = "daily_rollups")
+@CompoundIndex(name = "shop_scope_day", def = "{'shop_id': 1, 'scope': 1, 'day': 1}")
+public class DailyRollup {
+    @Id
+    private String id;
+    
+    private Scope scope;
+    private String scopeId;
+    
+    @Field("shop_id")
+    private String shopId;
+    
+    private LocalDate day;
+    
+    // Bookings made for this day, and how many / how much currently sit in each status
+    private long bookings;
+    private Map<String, Long> bookingsByStatus = new HashMap<>();
+    private Map<String, Double> amountByStatus = new HashMap<>();
+    
+    private long completedPayments;
+    private double paidAmount;
+    
+    private LocalDateTime updatedAt;
+    
+    public enum Scope {
+        SHOP,
+        STAFF,
+        SERVICE
+    }
+    
+    // Constructors
+    public DailyRollup() {}
+    
+    public static String idOf(Scope scope, String scopeId, LocalDate day) {
+        return scope.name().toLowerCase() + ":" + scopeId + ":" + day;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public Scope getScope() {
+        return scope;
+    }
+    
+    public void setScope(Scope scope) {
+        this.scope = scope;
+    }
+    
+    public String getScopeId() {
+        return scopeId;
+    }
+    
+    public void setScopeId(String scopeId) {
+        this.scopeId = scopeId;
+    }
+    
+    public String getShopId() {
+        return shopId;
+    }
+    
+    public void setShopId(String shopId) {
+        this.shopId = shopId;
+    }
+    
+    public LocalDate getDay() {
+        return day;
+    }
+    
+    public void setDay(LocalDate day) {
+        this.day = day;
+    }
+    
+    public long getBookings() {
+        return bookings;
+    }
+    
+    public void setBookings(long bookings) {
+        this.bookings = bookings;
+    }
+    
+    public Map<String, Long> getBookingsByStatus() {
+        return bookingsByStatus;
+    }
+    
+    public void setBookingsByStatus(Map<String, Long> bookingsByStatus) {
+        this.bookingsByStatus = bookingsByStatus;
+    }
+    
+    public Map<String, Double> getAmountByStatus() {
+        return amountByStatus;
+    }
+    
+    public void setAmountByStatus(Map<String, Double> amountByStatus) {
+        this.amountByStatus = amountByStatus;
+    }
+    
+    public long getCompletedPayments() {
+        return completedPayments;
+    }
+    
+    public void setCompletedPayments(long completedPayments) {
+        this.completedPayments = completedPayments;
+    }
+    
+    public double getPaidAmount() {
+        return paidAmount;
+    }
+    
+    public void setPaidAmount(double paidAmount) {
+        this.paidAmount = paidAmount;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -1,6 +1,7 @@
 package com.barberease.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -9,6 +10,8 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Document(collection = "notifications")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+@CompoundIndex(name = "user_created_page", def = "{'user_id': 1, 'createdAt': -1, '_id': -1}")
 public class Notification {
     @Id
     private String id;
@@ -30,11 +33,17 @@ public class Notification {
     private String recipientPhone;
     private String recipientWhatsApp;
     
+    // Rendered content, so that retries do not need the booking or user again
+    private String subject;
+    private String body;
+    
     // Delivery tracking
     private LocalDateTime sentAt;
     private LocalDateTime deliveredAt;
     private String deliveryResponse;
     private String failureReason;
+    private int attempts = 0;
+    private LocalDateTime nextAttemptAt;
     
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -195,6 +204,38 @@ public class Notification {
         this.failureReason = failureReason;
     }
     
+    public String getSubject() {
+        return subject;
+    }
+    
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+    
+    public String getBody() {
+        return body;
+    }
+    
+    public void setBody(String body) {
+        this.body = body;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+    
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -1,6 +1,8 @@
 package com.barberease.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -9,10 +11,15 @@ import jakarta.validation.constraints.Positive;
 import java.time.LocalDateTime;
 
 @Document(collection = "payments")
+@CompoundIndex(name = "user_created_page", def = "{'user_id': 1, 'createdAt': -1, '_id': -1}")
 public class Payment {
     @Id
     private String id;
     
+    // Optimistic locking: incremented on every write, a save with a stale value fails
+    @Version
+    private Long version;
+    
     @Field("booking_id")
     private String bookingId;
     
@@ -77,6 +84,14 @@ public class Payment {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getBookingId() {
         return bookingId;
     }
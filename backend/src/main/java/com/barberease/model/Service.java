@@ -1,6 +1,7 @@
 package com.barberease.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotBlank;
@@ -13,6 +14,10 @@ public class Service {
     @Id
     private String id;
     
+    // Optimistic locking: incremented on every write, a save with a stale value fails
+    @Version
+    private Long version;
+    
     @NotBlank(message = "Service name is required")
     private String name;
     
@@ -73,6 +78,14 @@ public class Service {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getName() {
         return name;
     }
@@ -1,19 +1,29 @@
 package com.barberease.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
+import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 @Document(collection = "shops")
 public class Shop {
     @Id
     private String id;
     
+    // Optimistic locking: incremented on every write, a save with a stale value fails
+    @Version
+    private Long version;
+    
     @NotBlank(message = "Shop name is required")
     @Size(min = 2, max = 100)
     private String name;
@@ -30,6 +40,9 @@ public class Shop {
     // Business hours
     private BusinessHours businessHours;
     
+    // Days the whole shop is closed, e.g. public holidays
+    private List<LocalDate> closedDates;
+    
     // Shop settings
     private ShopSettings settings;
     
@@ -40,6 +53,15 @@ public class Shop {
     // Staff list
     private List<String> staffIds;
     
+    // Location (longitude, latitude) for nearby search
+    @GeoSpatialIndexed(type = GeoSpatialIndexType.GEO_2DSPHERE)
+    private GeoJsonPoint location;
+    
+    // Derived by ShopService: business hours as minute-of-week intervals
+    // and the categories of the shop's active services
+    private List<OpenInterval> openIntervals;
+    private Set<Service.ServiceCategory> serviceCategories;
+    
     private boolean active = true;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -80,6 +102,26 @@ public class Shop {
         public void setSunday(String sunday) { this.sunday = sunday; }
     }
     
+    public static class OpenInterval {
+        private int start;
+        private int end;
+        
+        // Constructors
+        public OpenInterval() {}
+        
+        public OpenInterval(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+        
+        // Getters and Setters
+        public int getStart() { return start; }
+        public void setStart(int start) { this.start = start; }
+        
+        public int getEnd() { return end; }
+        public void setEnd(int end) { this.end = end; }
+    }
+    
     public static class ShopSettings {
         private int advancePaymentPercentage = 20; // Default 20%
         private int slotDurationMinutes = 30;
@@ -142,6 +184,14 @@ public class Shop {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getName() {
         return name;
     }
@@ -214,6 +264,38 @@ public class Shop {
         this.staffIds = staffIds;
     }
     
+    public GeoJsonPoint getLocation() {
+        return location;
+    }
+    
+    public void setLocation(GeoJsonPoint location) {
+        this.location = location;
+    }
+    
+    public List<LocalDate> getClosedDates() {
+        return closedDates;
+    }
+    
+    public void setClosedDates(List<LocalDate> closedDates) {
+        this.closedDates = closedDates;
+    }
+    
+    public List<OpenInterval> getOpenIntervals() {
+        return openIntervals;
+    }
+    
+    public void setOpenIntervals(List<OpenInterval> openIntervals) {
+        this.openIntervals = openIntervals;
+    }
+    
+    public Set<Service.ServiceCategory> getServiceCategories() {
+        return serviceCategories;
+    }
+    
+    public void setServiceCategories(Set<Service.ServiceCategory> serviceCategories) {
+        this.serviceCategories = serviceCategories;
+    }
+    
     public boolean isActive() {
         return active;
     }
@@ -0,0 +1,98 @@
+package com.barberease.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDateTime;
+
+/**
+ * Claim on one fixed-size slot of a staff member's calendar. The unique index on
+ * (staff_id, slotStart) guarantees that at most one booking holds a slot, even when
+ * bookings are created concurrently on different nodes.
+ */
+@Document(collection = "slot_claims")
+@CompoundIndex(name = "staff_slot_unique", def = "{'staff_id': 1, 'slotStart': 1}", unique = true)
+public class SlotClaim {
+    @Id
+    private String id;
+    
+    @Field("staff_id")
+    private String staffId;
+    
+    private LocalDateTime slotStart;
+    
+    @Indexed
+    @Field("booking_id")
+    private String bookingId;
+    
+    // Claims are only needed until the slot has passed
+    @Indexed(expireAfterSeconds = 0)
+    private LocalDateTime expireAt;
+    
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public SlotClaim() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public SlotClaim(String staffId, LocalDateTime slotStart, String bookingId) {
+        this();
+        this.staffId = staffId;
+        this.slotStart = slotStart;
+        this.bookingId = bookingId;
+        this.expireAt = slotStart.plusDays(1);
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getStaffId() {
+        return staffId;
+    }
+    
+    public void setStaffId(String staffId) {
+        this.staffId = staffId;
+    }
+    
+    public LocalDateTime getSlotStart() {
+        return slotStart;
+    }
+    
+    public void setSlotStart(LocalDateTime slotStart) {
+        this.slotStart = slotStart;
+    }
+    
+    public String getBookingId() {
+        return bookingId;
+    }
+    
+    public void setBookingId(String bookingId) {
+        this.bookingId = bookingId;
+    }
+    
+    public LocalDateTime getExpireAt() {
+        return expireAt;
+    }
+    
+    public void setExpireAt(LocalDateTime expireAt) {
+        this.expireAt = expireAt;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,11 +1,13 @@
 package com.barberease.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -15,6 +17,10 @@ public class Staff {
     @Id
     private String id;
     
+    // Optimistic locking: incremented on every write, a save with a stale value fails
+    @Version
+    private Long version;
+    
     @NotBlank(message = "Staff name is required")
     @Size(min = 2, max = 50)
     private String name;
@@ -37,6 +43,9 @@ public class Staff {
     // Availability schedule (day of week -> time slots)
     private Map<String, List<TimeSlot>> availability;
     
+    // Date-specific overrides of the weekly availability, e.g. leave
+    private List<ScheduleException> exceptions;
+    
     // Services offered by this staff member
     private List<String> serviceIds;
     
@@ -72,6 +81,31 @@ public class Staff {
         public void setAvailable(boolean available) { this.available = available; }
     }
     
+    // Inner class for date-specific schedule overrides
+    public static class ScheduleException {
+        private LocalDate date;
+        private List<TimeSlot> slots; // Hours worked that day; none means off all day
+        private String reason;
+        
+        public ScheduleException() {}
+        
+        public ScheduleException(LocalDate date, List<TimeSlot> slots, String reason) {
+            this.date = date;
+            this.slots = slots;
+            this.reason = reason;
+        }
+        
+        // Getters and Setters
+        public LocalDate getDate() { return date; }
+        public void setDate(LocalDate date) { this.date = date; }
+        
+        public List<TimeSlot> getSlots() { return slots; }
+        public void setSlots(List<TimeSlot> slots) { this.slots = slots; }
+        
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+    
     // Constructors
     public Staff() {
         this.createdAt = LocalDateTime.now();
@@ -94,6 +128,14 @@ public class Staff {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public String getName() {
         return name;
     }
@@ -158,6 +200,14 @@ public class Staff {
         this.availability = availability;
     }
     
+    public List<ScheduleException> getExceptions() {
+        return exceptions;
+    }
+    
+    public void setExceptions(List<ScheduleException> exceptions) {
+        this.exceptions = exceptions;
+    }
+    
     public List<String> getServiceIds() {
         return serviceIds;
     }
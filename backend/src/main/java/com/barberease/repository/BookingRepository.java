@@ -1,6 +1,7 @@
 package com.barberease.repository;
 
 import com.barberease.model.Booking;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -18,10 +19,25 @@ public interface BookingRepository extends MongoRepository<Booking, String> {
     List<Booking> findByStatus(Booking.BookingStatus status);
     List<Booking> findByPaymentStatus(Booking.PaymentStatus paymentStatus);
     
+    // Keyset pages, newest appointment first; see PageCursor
+    List<Booking> findByUserId(String userId, Pageable pageable);
+    List<Booking> findByShopId(String shopId, Pageable pageable);
+    
+    @Query("{ 'userId': ?0, $or: [ { 'appointmentDateTime': { $lt: ?1 } }, { 'appointmentDateTime': ?1, '_id': { $lt: ?2 } } ] }")
+    List<Booking> findNextPageByUserId(String userId, LocalDateTime appointmentDateTime, Object id, Pageable pageable);
+    
+    @Query("{ 'shopId': ?0, $or: [ { 'appointmentDateTime': { $lt: ?1 } }, { 'appointmentDateTime': ?1, '_id': { $lt: ?2 } } ] }")
+    List<Booking> findNextPageByShopId(String shopId, LocalDateTime appointmentDateTime, Object id, Pageable pageable);
+    
     @Query("{ 'shopId': ?0, 'appointmentDateTime': { $gte: ?1, $lt: ?2 }, 'status': { $nin: ['CANCELLED', 'NO_SHOW'] } }")
     List<Booking> findActiveBookingsByShopAndDateRange(String shopId, LocalDateTime start, LocalDateTime end);
     
     @Query("{ 'staffId': ?0, 'appointmentDateTime': { $gte: ?1, $lt: ?2 }, 'status': { $nin: ['CANCELLED', 'NO_SHOW'] } }")
     List<Booking> findActiveBookingsByStaffAndDateRange(String staffId, LocalDateTime start, LocalDateTime end);
+    
+    // Active bookings overlapping [start, end). No booking starts before earliestStart, which
+    // bounds the appointmentDateTime range scanned on the staff_interval index from both sides
+    @Query("{ 'staffId': ?0, 'appointmentDateTime': { $gte: ?1, $lt: ?3 }, 'endDateTime': { $gt: ?2 }, 'status': { $nin: ['CANCELLED', 'NO_SHOW'] } }")
+    List<Booking> findOverlappingActiveBookings(String staffId, LocalDateTime earliestStart, LocalDateTime start, LocalDateTime end);
 }
 
@@ -0,0 +1,72 @@
+package com.barberease.repository;
+
+import com.barberease.model.Service;
+import com.barberease.model.Shop;
+import com.mongodb.ReadPreference;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Read-only catalogue queries that may be served by a secondary.
+ *
+ * Shops, services and staff change rarely and are read on every public page, so
+ * these lookups use secondaryPreferred with a maxStaleness budget: a secondary
+ * lagging further behind than that is skipped, and the primary answers when no
+ * secondary qualifies. On a standalone server the read preference has no effect.
+ *
+ * Only add queries here that can tolerate stale data. Booking conflict checks,
+ * payments and reads that follow a write (such as the shop directory rebuild)
+ * go through the regular repositories, which always read from the primary. So
+ * do reads that fill a cache: a write evicts the entry, and refilling it from a
+ * lagging secondary would keep the pre-write data for the whole cache TTL.
+ */
+@Repository
+public class CatalogueReadRepository {
+    
+    // The driver rejects a maxStaleness below 90 seconds
+    static final long MIN_MAX_STALENESS_SECONDS = 90;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${barberease.mongo.catalogue-reads.secondary:true}")
+    private boolean secondaryReads;
+    
+    @Value("${barberease.mongo.catalogue-reads.max-staleness-seconds:90}")
+    private long maxStalenessSeconds;
+    
+    private ReadPreference readPreference;
+    
+    @PostConstruct
+    public void init() {
+        readPreference = secondaryReads
+                ? ReadPreference.secondaryPreferred(Math.max(maxStalenessSeconds, MIN_MAX_STALENESS_SECONDS), TimeUnit.SECONDS)
+                : ReadPreference.primary();
+    }
+    
+    public List<Shop> findActiveShops() {
+        return mongoTemplate.find(catalogue(query(where("active").is(true))), Shop.class);
+    }
+    
+    public List<Service> findActiveServicesByCategory(Service.ServiceCategory category) {
+        return mongoTemplate.find(catalogue(query(where("category").is(category).and("active").is(true))), Service.class);
+    }
+    
+    public ReadPreference getReadPreference() {
+        return readPreference;
+    }
+    
+    private Query catalogue(Query query) {
+        return query.withReadPreference(readPreference);
+    }
+}
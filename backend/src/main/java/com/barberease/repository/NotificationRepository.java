@@ -1,9 +1,12 @@
 package com.barberease.repository;
 
 import com.barberease.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,5 +16,11 @@ public interface NotificationRepository extends MongoRepository<Notification, St
     List<Notification> findByStatus(Notification.NotificationStatus status);
     List<Notification> findByType(Notification.NotificationType type);
     List<Notification> findByChannel(Notification.NotificationChannel channel);
+    
+    // Keyset pages, newest first; see PageCursor
+    List<Notification> findByUserId(String userId, Pageable pageable);
+    
+    @Query("{ 'userId': ?0, $or: [ { 'createdAt': { $lt: ?1 } }, { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }")
+    List<Notification> findNextPageByUserId(String userId, LocalDateTime createdAt, Object id, Pageable pageable);
 }
 
@@ -0,0 +1,102 @@
+package com.barberease.repository;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Single-round-trip partial updates for state transitions.
+ *
+ * Each method sends one findAndModify that changes only the given fields, and
+ * only if the document still matches the criteria, which carry the transition's
+ * precondition (for example "status is not COMPLETED"). Concurrent transitions
+ * on the same document are therefore serialized by Mongo instead of one silently
+ * overwriting the other, as a findById followed by save() would. updatedAt is
+ * always set, and MongoTemplate bumps @Version fields, so a client holding the
+ * old version gets a conflict on its next save. A null result means no document
+ * matched: the caller decides whether that is "not found" or "not allowed in
+ * the current state".
+ */
+@Repository
+public class PartialUpdateRepository {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    /**
+     * A document before and after a transition.
+     */
+    public static class Transition<T> {
+        private final T before;
+        private final T after;
+        
+        Transition(T before, T after) {
+            this.before = before;
+            this.after = after;
+        }
+        
+        public T getBefore() {
+            return before;
+        }
+        
+        public T getAfter() {
+            return after;
+        }
+    }
+    
+    /**
+     * Applies the update to the first document matching the criteria and
+     * returns it as updated, or null if none matched.
+     */
+    public <T> T updateAndGet(Criteria criteria, Update update, Class<T> type) {
+        return mongoTemplate.findAndModify(query(criteria), stamped(update),
+                FindAndModifyOptions.options().returnNew(true), type);
+    }
+    
+    /**
+     * Like updateAndGet, but also returns the document as it was, for callers
+     * that react to the previous state. The new state is derived from the old
+     * one without a second read, so only top-level $set updates are supported.
+     */
+    public <T> Transition<T> transition(Criteria criteria, Update update, Class<T> type) {
+        Document updateObject = stamped(update).getUpdateObject();
+        if (updateObject.size() != 1 || !updateObject.containsKey("$set")) {
+            throw new IllegalArgumentException("Transitions support $set updates only, got " + updateObject.keySet());
+        }
+        
+        T before = mongoTemplate.findAndModify(query(criteria), Update.fromDocument(updateObject),
+                FindAndModifyOptions.options().returnNew(false), type);
+        if (before == null) {
+            return null;
+        }
+        
+        MongoConverter converter = mongoTemplate.getConverter();
+        MongoPersistentEntity<?> entity = converter.getMappingContext().getRequiredPersistentEntity(type);
+        Document document = new Document();
+        converter.write(before, document);
+        Document mapped = new UpdateMapper(converter).getMappedObject(updateObject, entity);
+        document.putAll(mapped.get("$set", Document.class));
+        if (entity.hasVersionProperty()) {
+            // MongoTemplate adds a $inc of the version to every update of a versioned entity
+            String versionField = entity.getRequiredVersionProperty().getFieldName();
+            Number version = document.get(versionField, Number.class);
+            document.put(versionField, version != null ? version.longValue() + 1 : 1L);
+        }
+        return new Transition<>(before, converter.read(type, document));
+    }
+    
+    private static Update stamped(Update update) {
+        return update.set("updatedAt", LocalDateTime.now());
+    }
+}
@@ -1,9 +1,12 @@
 package com.barberease.repository;
 
 import com.barberease.model.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,5 +17,11 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
     List<Payment> findByStatus(Payment.PaymentStatus status);
     Optional<Payment> findByRazorpayOrderId(String razorpayOrderId);
     Optional<Payment> findByRazorpayPaymentId(String razorpayPaymentId);
+    
+    // Keyset pages, newest first; see PageCursor
+    List<Payment> findByUserId(String userId, Pageable pageable);
+    
+    @Query("{ 'userId': ?0, $or: [ { 'createdAt': { $lt: ?1 } }, { 'createdAt': ?1, '_id': { $lt: ?2 } } ] }")
+    List<Payment> findNextPageByUserId(String userId, LocalDateTime createdAt, Object id, Pageable pageable);
 }
 
@@ -0,0 +1,167 @@
+package com.barberease.security;
+
+import com.barberease.config.RateLimitConfig;
+import com.barberease.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Enforces the limits in RateLimitConfig with one token bucket per client.
+ *
+ * Login and registration are limited per client IP, other anonymous API calls
+ * per client IP, and authenticated calls per user id. Buckets live in a bounded
+ * Caffeine map per route class and expire after a full period without requests,
+ * at which point they would have refilled anyway. A throttled request gets 429
+ * with Retry-After and is counted in barberease.ratelimit.throttled by route.
+ *
+ * Runs after JwtAuthenticationFilter so the authenticated user is known.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    
+    private static final String API_PREFIX = "/api/";
+    
+    enum Route {
+        LOGIN(RateLimitConfig.LOGIN_RATE_LIMIT, RateLimitConfig.LOGIN_RATE_PERIOD),
+        PUBLIC(RateLimitConfig.PUBLIC_RATE_LIMIT, RateLimitConfig.PUBLIC_RATE_PERIOD),
+        AUTHENTICATED(RateLimitConfig.AUTH_RATE_LIMIT, RateLimitConfig.AUTH_RATE_PERIOD);
+        
+        final int capacity;
+        final Duration period;
+        
+        Route(int capacity, Duration period) {
+            this.capacity = capacity;
+            this.period = period;
+        }
+    }
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${barberease.rate-limit.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${barberease.rate-limit.max-clients:100000}")
+    private long maxClients;
+    
+    // Only honour X-Forwarded-For when the app is reachable solely through the proxy
+    @Value("${barberease.rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+    
+    LongSupplier nanoClock = System::nanoTime;
+    
+    private final Map<Route, Cache<String, TokenBucket>> buckets = new EnumMap<>(Route.class);
+    private final Map<Route, Counter> throttled = new EnumMap<>(Route.class);
+    
+    @PostConstruct
+    public void init() {
+        for (Route route : Route.values()) {
+            buckets.put(route, Caffeine.newBuilder()
+                    .maximumSize(maxClients)
+                    .expireAfterAccess(route.period)
+                    .build());
+            throttled.put(route, Counter.builder("barberease.ratelimit.throttled")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("route", route.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !pathWithinApplication(request).startsWith(API_PREFIX)
+                || "OPTIONS".equals(request.getMethod());
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Route route = routeOf(request);
+        String client = route == Route.AUTHENTICATED ? currentUserId() : clientAddress(request);
+        
+        long now = nanoClock.getAsLong();
+        TokenBucket bucket = buckets.get(route).get(client,
+                key -> new TokenBucket(route.capacity, route.period.toNanos(), now));
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos > 0) {
+            throttled.get(route).increment();
+            reject(request, response, waitNanos);
+            return;
+        }
+        
+        filterChain.doFilter(request, response);
+    }
+    
+    Route routeOf(HttpServletRequest request) {
+        String path = pathWithinApplication(request);
+        if ("POST".equals(request.getMethod())
+                && (path.equals("/api/auth/login") || path.equals("/api/auth/register"))) {
+            return Route.LOGIN;
+        }
+        return currentUserId() != null ? Route.AUTHENTICATED : Route.PUBLIC;
+    }
+    
+    private String currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal) {
+            return ((UserPrincipal) authentication.getPrincipal()).getId();
+        }
+        return null;
+    }
+    
+    private String clientAddress(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (StringUtils.hasText(forwardedFor)) {
+                // The proxy appends the address it saw, so the last entry is the one it vouches for
+                String[] hops = forwardedFor.split(",");
+                return hops[hops.length - 1].trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+    
+    private static String pathWithinApplication(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+    
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), new GlobalExceptionHandler.ErrorResponse(
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                "Too many requests, retry after " + retryAfterSeconds + " seconds",
+                LocalDateTime.now(),
+                "uri=" + request.getRequestURI()
+        ));
+    }
+}
@@ -27,6 +27,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
     
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+    
     @Bean
     public JwtAuthenticationFilter jwtAuthenticationFilter() {
         return new JwtAuthenticationFilter();
@@ -69,6 +72,8 @@ public class SecurityConfig {
                                        "/**/*.gif", "/**/*.svg", "/**/*.ico", "/**/*.woff", "/**/*.woff2", 
                                        "/**/*.ttf", "/**/*.eot", "/assets/**", "/index.html", "/").permitAll()
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Slow Mongo commands reveal collection names and filter shapes
+                        .requestMatchers("/actuator/mongoslow", "/actuator/mongoslow/**").hasRole("ADMIN")
                         .requestMatchers("/api/owner/**").hasAnyRole("ADMIN", "SHOP_OWNER")
                         .requestMatchers("/api/staff/**").hasAnyRole("ADMIN", "SHOP_OWNER", "STAFF")
                         // Require authentication for API endpoints only
@@ -78,6 +83,7 @@ public class SecurityConfig {
                 );
         
         http.addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
         
         return http.build();
     }
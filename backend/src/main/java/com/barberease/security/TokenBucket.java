@@ -0,0 +1,43 @@
+package com.barberease.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket of capacity tokens refilled evenly over period, kept as a
+ * single timestamp so it can be updated with compare-and-set instead of a lock.
+ *
+ * The state is the theoretical arrival time (TAT) of the next request: each
+ * accepted request pushes it forward by one refill interval, and a request is
+ * rejected when that would put it more than one full period ahead of now, i.e.
+ * when the bucket is empty. This is the GCRA formulation of a token bucket.
+ */
+public final class TokenBucket {
+    
+    private final long intervalNanos;
+    private final long periodNanos;
+    private final AtomicLong theoreticalArrival;
+    
+    public TokenBucket(int capacity, long periodNanos, long nowNanos) {
+        this.intervalNanos = periodNanos / capacity;
+        this.periodNanos = periodNanos;
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+    
+    /**
+     * Takes one token. Returns 0 if a token was available, otherwise the number
+     * of nanoseconds until the next token is refilled.
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, nowNanos) + intervalNanos;
+            long wait = next - nowNanos - periodNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+}
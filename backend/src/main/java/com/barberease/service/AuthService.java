@@ -71,9 +71,20 @@ public class AuthService {
     }
     
     public User getCurrentUser() {
+        return userRepository.findById(getCurrentUserId()).orElseThrow();
+    }
+    
+    /**
+     * Returns the principal resolved by JwtAuthenticationFilter for this request,
+     * without another database read.
+     */
+    public UserPrincipal getCurrentUserPrincipal() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        return userRepository.findById(userPrincipal.getId()).orElseThrow();
+        return (UserPrincipal) authentication.getPrincipal();
+    }
+    
+    public String getCurrentUserId() {
+        return getCurrentUserPrincipal().getId();
     }
 }
 
@@ -0,0 +1,20 @@
+package com.barberease.service;
+
+/**
+ * One startup data migration, run by BackfillRunner.
+ *
+ * A backfill must only touch documents that still need it, so that it is safe
+ * to leave enabled and to run on several instances at once.
+ */
+public interface Backfill {
+    
+    /**
+     * Key under barberease.migrations that enables the backfill, and its name in logs.
+     */
+    String name();
+    
+    /**
+     * Migrates the documents that need it and returns how many were changed.
+     */
+    long backfill();
+}
@@ -0,0 +1,48 @@
+package com.barberease.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Runs every enabled Backfill, in @Order, before the application serves
+ * requests.
+ *
+ * The backfills bring documents stored by older versions up to what the code
+ * now expects, so they run synchronously once all beans exist, before the web
+ * server starts. A failed backfill is logged and the others still run; it is
+ * retried on the next start.
+ */
+@Component
+public class BackfillRunner implements SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BackfillRunner.class);
+    
+    @Autowired
+    private List<Backfill> backfills;
+    
+    @Autowired
+    private Environment environment;
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (Backfill backfill : backfills) {
+            if (!environment.getProperty("barberease.migrations." + backfill.name(), Boolean.class, true)) {
+                continue;
+            }
+            try {
+                long updated = backfill.backfill();
+                if (updated > 0) {
+                    logger.info("Backfill {} updated {} documents", backfill.name(), updated);
+                }
+            } catch (Exception e) {
+                logger.error("Backfill {} failed", backfill.name(), e);
+            }
+        }
+    }
+}
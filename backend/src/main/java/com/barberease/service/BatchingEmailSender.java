@@ -0,0 +1,186 @@
+package com.barberease.service;
+
+import com.barberease.model.Notification;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Email transport that groups notifications into batches and sends each batch
+ * over a single SMTP connection.
+ *
+ * A batch is closed when it reaches batch-size messages or when batch-window-ms
+ * has passed since its first message, whichever comes first. JavaMailSender sends
+ * an array of messages through one connected Transport, so a batch costs one
+ * connection and TLS handshake instead of one per message. The outcome of every
+ * message is written back to its Notification individually.
+ */
+@Component
+public class BatchingEmailSender {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchingEmailSender.class);
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired(required = false)
+    private JavaMailSender mailSender;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${spring.mail.username:noreply@barberease.com}")
+    private String fromEmail;
+    
+    @Value("${barberease.notifications.email.batch-size:50}")
+    private int batchSize;
+    
+    @Value("${barberease.notifications.email.batch-window-ms:500}")
+    private long batchWindowMs;
+    
+    @Value("${barberease.notifications.email.queue-capacity:5000}")
+    private int queueCapacity;
+    
+    private BlockingQueue<Notification> queue;
+    private Thread flusher;
+    private volatile boolean running;
+    
+    private DistributionSummary batchSizeSummary;
+    private Timer sendTimer;
+    private Counter sentCounter;
+    private Counter failedCounter;
+    
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        
+        batchSizeSummary = DistributionSummary.builder("notification.email.batch.size")
+                .description("Messages per SMTP batch")
+                .register(meterRegistry);
+        sendTimer = Timer.builder("notification.email.batch.send")
+                .description("Time to send one SMTP batch")
+                .register(meterRegistry);
+        sentCounter = Counter.builder("notification.email.messages").tag("outcome", "sent").register(meterRegistry);
+        failedCounter = Counter.builder("notification.email.messages").tag("outcome", "failed").register(meterRegistry);
+        
+        running = true;
+        flusher = new Thread(this::run, "email-batcher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    
+    public void submit(Notification notification) {
+        if (!queue.offer(notification)) {
+            notificationService.recordFailure(notification, "Email queue full");
+        }
+    }
+    
+    private void run() {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Notification first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchWindowMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Notification next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Woken up by stop(); flush what we have and drain the rest
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            
+            if (!batch.isEmpty()) {
+                sendBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    void sendBatch(List<Notification> batch) {
+        batchSizeSummary.record(batch.size());
+        
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Notification notification = batch.get(i);
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(notification.getRecipientEmail());
+            message.setSubject(notification.getSubject());
+            message.setText(notification.getBody());
+            messages[i] = message;
+        }
+        
+        Map<Object, Exception> failures = Map.of();
+        Exception batchFailure = null;
+        
+        if (mailSender == null) {
+            logger.warn("Mail sender not configured, {} emails not sent", batch.size());
+            batchFailure = new IllegalStateException("Mail sender not configured");
+        } else {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                mailSender.send(messages);
+            } catch (MailSendException e) {
+                failures = e.getFailedMessages();
+                if (failures.isEmpty()) {
+                    batchFailure = e;
+                }
+            } catch (Exception e) {
+                batchFailure = e;
+            } finally {
+                sample.stop(sendTimer);
+            }
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            Notification notification = batch.get(i);
+            Exception failure = batchFailure != null ? batchFailure : failures.get(messages[i]);
+            try {
+                if (failure == null) {
+                    sentCounter.increment();
+                    notificationService.recordSent(notification);
+                } else {
+                    failedCounter.increment();
+                    notificationService.recordFailure(notification, failure.getMessage());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to record delivery status for notification {}", notification.getId(), e);
+            }
+        }
+    }
+}
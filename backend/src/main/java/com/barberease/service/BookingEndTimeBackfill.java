@@ -0,0 +1,60 @@
+package com.barberease.service;
+
+import com.barberease.model.Booking;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Fills in endDateTime on bookings created before it was stored.
+ *
+ * The booking conflict check only sees bookings with an end time. Each
+ * service's bookings get one server-side pipeline update that adds the
+ * service's current duration and buffer time to appointmentDateTime. Bookings
+ * whose service no longer exists get LEGACY_BOOKING_MINUTES.
+ */
+@Component
+@Order(2)
+public class BookingEndTimeBackfill implements Backfill {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public String name() {
+        return "booking-end-time";
+    }
+    
+    @Override
+    public long backfill() {
+        Criteria missingEnd = where("endDateTime").exists(false);
+        List<String> serviceIds = mongoTemplate.findDistinct(query(missingEnd), "serviceId", Booking.class, String.class);
+        
+        long updated = 0;
+        for (String serviceId : serviceIds) {
+            com.barberease.model.Service service = mongoTemplate.findById(serviceId, com.barberease.model.Service.class);
+            int minutes = service != null && service.getDurationMinutes() != null
+                    ? service.getDurationMinutes() + (service.getBufferTimeMinutes() != null ? service.getBufferTimeMinutes() : 0)
+                    : BookingService.LEGACY_BOOKING_MINUTES;
+            updated += setEnd(where("serviceId").is(serviceId).and("endDateTime").exists(false), minutes);
+        }
+        updated += setEnd(where("serviceId").exists(false).and("endDateTime").exists(false),
+                BookingService.LEGACY_BOOKING_MINUTES);
+        return updated;
+    }
+    
+    private long setEnd(Criteria criteria, int minutes) {
+        AggregationUpdate update = AggregationUpdate.update()
+                .set("endDateTime").toValue(ArithmeticOperators.valueOf("appointmentDateTime").add(minutes * 60_000L));
+        return mongoTemplate.updateMulti(query(criteria), update, Booking.class).getModifiedCount();
+    }
+}
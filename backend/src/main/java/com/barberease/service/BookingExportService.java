@@ -0,0 +1,174 @@
+package com.barberease.service;
+
+import com.barberease.exception.BadRequestException;
+import com.barberease.model.Booking;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Writes a shop's bookings to an output stream straight from a Mongo cursor.
+ *
+ * Only one cursor batch and one buffered writer are held at a time, so memory
+ * use does not depend on how many bookings are exported. The writer is flushed
+ * every flush-rows records, so the client starts receiving data right away.
+ */
+@Service
+public class BookingExportService {
+    
+    private static final String[] CSV_COLUMNS = {
+        "id", "shopId", "staffId", "userId", "serviceId", "appointmentDateTime",
+        "status", "paymentStatus", "totalAmount", "advanceAmount", "notes", "createdAt"
+    };
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${barberease.export.cursor-batch-size:500}")
+    private int cursorBatchSize;
+    
+    @Value("${barberease.export.flush-rows:200}")
+    private int flushRows;
+    
+    public enum ExportFormat {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+        
+        private final String contentType;
+        private final String extension;
+        
+        ExportFormat(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public String getExtension() {
+            return extension;
+        }
+        
+        public static ExportFormat from(String value) {
+            try {
+                return valueOf(value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported export format: " + value);
+            }
+        }
+    }
+    
+    public void exportShopBookings(String shopId, LocalDateTime startDate, LocalDateTime endDate,
+                                   ExportFormat format, OutputStream out) throws IOException {
+        Criteria criteria = where("shopId").is(shopId);
+        if (startDate != null && endDate != null) {
+            criteria = criteria.and("appointmentDateTime").gte(startDate).lt(endDate);
+        } else if (startDate != null) {
+            criteria = criteria.and("appointmentDateTime").gte(startDate);
+        } else if (endDate != null) {
+            criteria = criteria.and("appointmentDateTime").lt(endDate);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by("appointmentDateTime", "id"))
+                .cursorBatchSize(cursorBatchSize);
+        
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<Booking> bookings = mongoTemplate.stream(query, Booking.class)) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(bookings, writer);
+            } else {
+                writeNdjson(bookings, writer);
+            }
+        }
+        writer.flush();
+    }
+    
+    private void writeNdjson(Stream<Booking> bookings, Writer writer) throws IOException {
+        ObjectWriter jsonWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        
+        int rows = 0;
+        for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+            jsonWriter.writeValue(generator, booking);
+            generator.writeRaw('\n');
+            if (++rows % flushRows == 0) {
+                generator.flush();
+            }
+        }
+        generator.close();
+    }
+    
+    private void writeCsv(Stream<Booking> bookings, Writer writer) throws IOException {
+        writer.write(String.join(",", CSV_COLUMNS));
+        writer.write("\r\n");
+        
+        int rows = 0;
+        for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+            writeCsvRow(writer,
+                    booking.getId(),
+                    booking.getShopId(),
+                    booking.getStaffId(),
+                    booking.getUserId(),
+                    booking.getServiceId(),
+                    booking.getAppointmentDateTime(),
+                    booking.getStatus(),
+                    booking.getPaymentStatus(),
+                    booking.getTotalAmount(),
+                    booking.getAdvanceAmount(),
+                    booking.getNotes(),
+                    booking.getCreatedAt());
+            if (++rows % flushRows == 0) {
+                writer.flush();
+            }
+        }
+    }
+    
+    private void writeCsvRow(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writer.write(escapeCsv(values[i].toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+    
+    static String escapeCsv(String value) {
+        // Keep spreadsheet apps from evaluating customer-entered text as a formula
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,81 @@
+package com.barberease.service;
+
+import com.barberease.model.SlotClaim;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Serializes booking creation per staff member and reserves calendar time.
+ *
+ * Within a node, creates for the same staff member share one of a fixed set of
+ * lock stripes while creates for other staff members proceed in parallel. Across
+ * nodes, time is reserved by inserting one SlotClaim per slot; the unique index on
+ * (staff_id, slotStart) rejects any overlapping claim.
+ */
+@Service
+public class BookingReservationService {
+    
+    static final int CLAIM_GRANULARITY_MINUTES = 5;
+    private static final int LOCK_STRIPES = 64;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    
+    public BookingReservationService() {
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+    
+    public <T> T withStaffLock(String staffId, Supplier<T> action) {
+        ReentrantLock lock = locks[Math.floorMod(staffId.hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Claims every slot in [start, end) for the booking, or none of them.
+     *
+     * @throws RuntimeException if any slot is already claimed by another booking
+     */
+    public void claim(String staffId, String bookingId, LocalDateTime start, LocalDateTime end) {
+        List<SlotClaim> claims = new ArrayList<>();
+        for (LocalDateTime slot = floorToSlot(start); slot.isBefore(end); slot = slot.plusMinutes(CLAIM_GRANULARITY_MINUTES)) {
+            claims.add(new SlotClaim(staffId, slot, bookingId));
+        }
+        
+        try {
+            mongoTemplate.insert(claims, SlotClaim.class);
+        } catch (DuplicateKeyException e) {
+            // The insert is ordered, so claims before the conflicting one were written
+            release(bookingId);
+            throw new RuntimeException("Time slot is already booked");
+        }
+    }
+    
+    public void release(String bookingId) {
+        mongoTemplate.remove(query(where("bookingId").is(bookingId)), SlotClaim.class);
+    }
+    
+    private static LocalDateTime floorToSlot(LocalDateTime dateTime) {
+        int minute = dateTime.getMinute() - dateTime.getMinute() % CLAIM_GRANULARITY_MINUTES;
+        return dateTime.withMinute(minute).withSecond(0).withNano(0);
+    }
+}
@@ -0,0 +1,275 @@
+package com.barberease.service;
+
+import com.barberease.exception.BadRequestException;
+import com.barberease.model.Booking;
+import com.barberease.model.DailyRollup;
+import com.barberease.model.Payment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Daily booking and payment counters per shop, staff member and service.
+ *
+ * Every booking state change is applied as $inc upserts on the three rollups of
+ * its appointment day, sent as one unordered bulk write. Bookings are counted in
+ * the status they currently have, so a status change moves one booking and its
+ * amount from the old status to the new one. Dashboards read one document per
+ * day instead of every booking.
+ *
+ * Rollup updates never fail the booking or payment that caused them; if one is
+ * lost, rebuild() recomputes the rollups from the bookings and payments.
+ */
+@Service
+public class BookingRollupService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BookingRollupService.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${barberease.rollups.max-range-days:366}")
+    private long maxRangeDays;
+    
+    @Value("${barberease.rollups.cursor-batch-size:500}")
+    private int cursorBatchSize;
+    
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    
+    public void recordCreated(Booking booking) {
+        String status = booking.getStatus().name();
+        double amount = amountOf(booking);
+        apply(booking, update -> update
+                .inc("bookings", 1)
+                .inc("bookingsByStatus." + status, 1)
+                .inc("amountByStatus." + status, amount));
+    }
+    
+    public void recordStatusChange(Booking booking, Booking.BookingStatus previousStatus) {
+        if (previousStatus == null || previousStatus == booking.getStatus()) {
+            return;
+        }
+        String from = previousStatus.name();
+        String to = booking.getStatus().name();
+        double amount = amountOf(booking);
+        apply(booking, update -> update
+                .inc("bookingsByStatus." + from, -1)
+                .inc("bookingsByStatus." + to, 1)
+                .inc("amountByStatus." + from, -amount)
+                .inc("amountByStatus." + to, amount));
+    }
+    
+    public void recordPayment(Booking booking, double amount) {
+        apply(booking, update -> update
+                .inc("completedPayments", 1)
+                .inc("paidAmount", amount));
+    }
+    
+    // A refunded payment is no longer COMPLETED, so it leaves the payment counters
+    public void recordRefund(Booking booking, double amount) {
+        apply(booking, update -> update
+                .inc("completedPayments", -1)
+                .inc("paidAmount", -amount));
+    }
+    
+    /**
+     * Rollups of a shop between two days inclusive, oldest first: the shop's own
+     * rollups, or those of its staff or services, optionally for one of them.
+     */
+    public List<DailyRollup> getRollups(String shopId, DailyRollup.Scope scope, String scopeId,
+                                        LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= maxRangeDays) {
+            throw new BadRequestException("Date range must not exceed " + maxRangeDays + " days");
+        }
+        Criteria criteria = where("shopId").is(shopId).and("scope").is(scope)
+                .and("day").gte(startDate).lte(endDate);
+        if (scopeId != null) {
+            criteria.and("scopeId").is(scopeId);
+        }
+        return mongoTemplate.find(query(criteria).with(Sort.by("day", "scopeId")), DailyRollup.class);
+    }
+    
+    /**
+     * Starts a rebuild of all rollups on a background thread. Returns false if
+     * one is already running on this instance.
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread rebuilder = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Rollup rebuild failed", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        }, "rollup-rebuild");
+        rebuilder.setDaemon(true);
+        rebuilder.start();
+        return true;
+    }
+    
+    /**
+     * Recomputes every shop's rollups from its booking history. Each shop's
+     * bookings are streamed in appointment order and written out a day at a
+     * time, so memory use is bounded by one day of one shop. Counter updates
+     * made for a shop while it is being rebuilt may be lost, so run it when
+     * traffic is low.
+     */
+    public int rebuild() {
+        List<String> shopIds = mongoTemplate.findDistinct(new Query(), "shopId", Booking.class, String.class);
+        int written = 0;
+        for (String shopId : shopIds) {
+            written += rebuildShop(shopId);
+        }
+        logger.info("Rebuilt {} daily rollups for {} shops", written, shopIds.size());
+        return written;
+    }
+    
+    int rebuildShop(String shopId) {
+        mongoTemplate.remove(query(where("shopId").is(shopId)), DailyRollup.class);
+        
+        Query history = query(where("shopId").is(shopId))
+                .with(Sort.by("appointmentDateTime"))
+                .cursorBatchSize(cursorBatchSize);
+        history.fields().include("shopId", "staffId", "serviceId", "appointmentDateTime", "status",
+                "totalAmount", "paymentStatus");
+        
+        DayAccumulator day = new DayAccumulator();
+        int written = 0;
+        try (Stream<Booking> bookings = mongoTemplate.stream(history, Booking.class)) {
+            for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+                LocalDate bookingDay = booking.getAppointmentDateTime().toLocalDate();
+                if (day.day != null && !day.day.equals(bookingDay)) {
+                    written += flush(day);
+                    day = new DayAccumulator();
+                }
+                day.add(booking);
+            }
+        }
+        if (day.day != null) {
+            written += flush(day);
+        }
+        return written;
+    }
+    
+    private int flush(DayAccumulator day) {
+        if (!day.paidBookings.isEmpty()) {
+            Query payments = query(where("bookingId").in(day.paidBookings.keySet())
+                    .and("status").is(Payment.PaymentStatus.COMPLETED));
+            payments.fields().include("bookingId", "amount");
+            for (Payment payment : mongoTemplate.find(payments, Payment.class)) {
+                double amount = payment.getAmount() != null ? payment.getAmount() : 0;
+                for (DailyRollup rollup : day.rollupsOf(day.paidBookings.get(payment.getBookingId()))) {
+                    rollup.setCompletedPayments(rollup.getCompletedPayments() + 1);
+                    rollup.setPaidAmount(rollup.getPaidAmount() + amount);
+                }
+            }
+        }
+        mongoTemplate.insert(day.rollups.values(), DailyRollup.class);
+        return day.rollups.size();
+    }
+    
+    private static class DayAccumulator {
+        LocalDate day;
+        final Map<String, DailyRollup> rollups = new LinkedHashMap<>();
+        final Map<String, Booking> paidBookings = new HashMap<>();
+        
+        void add(Booking booking) {
+            day = booking.getAppointmentDateTime().toLocalDate();
+            String status = booking.getStatus().name();
+            double amount = amountOf(booking);
+            for (DailyRollup rollup : rollupsOf(booking)) {
+                rollup.setBookings(rollup.getBookings() + 1);
+                rollup.getBookingsByStatus().merge(status, 1L, Long::sum);
+                rollup.getAmountByStatus().merge(status, amount, Double::sum);
+            }
+            if (booking.getPaymentStatus() == Booking.PaymentStatus.COMPLETED) {
+                paidBookings.put(booking.getId(), booking);
+            }
+        }
+        
+        List<DailyRollup> rollupsOf(Booking booking) {
+            List<DailyRollup> scoped = new ArrayList<>(3);
+            for (Map.Entry<DailyRollup.Scope, String> scope : scopesOf(booking).entrySet()) {
+                String id = DailyRollup.idOf(scope.getKey(), scope.getValue(), day);
+                scoped.add(rollups.computeIfAbsent(id, key -> {
+                    DailyRollup rollup = new DailyRollup();
+                    rollup.setId(key);
+                    rollup.setScope(scope.getKey());
+                    rollup.setScopeId(scope.getValue());
+                    rollup.setShopId(booking.getShopId());
+                    rollup.setDay(day);
+                    rollup.setUpdatedAt(LocalDateTime.now());
+                    return rollup;
+                }));
+            }
+            return scoped;
+        }
+    }
+    
+    private void apply(Booking booking, Consumer<Update> counters) {
+        LocalDate day = booking.getAppointmentDateTime().toLocalDate();
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyRollup.class);
+            for (Map.Entry<DailyRollup.Scope, String> scope : scopesOf(booking).entrySet()) {
+                Update update = new Update()
+                        .setOnInsert("scope", scope.getKey())
+                        .setOnInsert("scopeId", scope.getValue())
+                        .setOnInsert("shopId", booking.getShopId())
+                        .setOnInsert("day", day)
+                        .set("updatedAt", LocalDateTime.now());
+                counters.accept(update);
+                bulk.upsert(query(where("id").is(DailyRollup.idOf(scope.getKey(), scope.getValue(), day))), update);
+            }
+            bulk.execute();
+        } catch (RuntimeException e) {
+            logger.error("Could not update daily rollups for booking {}; a rollup rebuild will correct them",
+                    booking.getId(), e);
+        }
+    }
+    
+    private static Map<DailyRollup.Scope, String> scopesOf(Booking booking) {
+        Map<DailyRollup.Scope, String> scopes = new LinkedHashMap<>();
+        scopes.put(DailyRollup.Scope.SHOP, booking.getShopId());
+        if (booking.getStaffId() != null) {
+            scopes.put(DailyRollup.Scope.STAFF, booking.getStaffId());
+        }
+        if (booking.getServiceId() != null) {
+            scopes.put(DailyRollup.Scope.SERVICE, booking.getServiceId());
+        }
+        return scopes;
+    }
+    
+    private static double amountOf(Booking booking) {
+        return booking.getTotalAmount() != null ? booking.getTotalAmount() : 0;
+    }
+}
@@ -1,52 +1,96 @@
                                                                                                                                                                                                                                                                                                                                                                                                 package com.barberease.service;
 
 import com.barberease.dto.BookingRequest;
+import com.barberease.dto.CursorPage;
+import com.barberease.dto.StaffAvailabilityDto;
+import com.barberease.exception.BadRequestException;
 import com.barberease.model.Booking;
+import com.barberease.model.Notification;
+import com.barberease.model.Staff;
 import com.barberease.repository.BookingRepository;
-import com.barberease.repository.ServiceRepository;
+import com.barberease.repository.PartialUpdateRepository;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 public class BookingService {
     
+    private static final int MAX_AVAILABILITY_DAYS = 14;
+    
+    // Length assumed for bookings made before end times were stored: a 30-minute slot and 5-minute buffer
+    static final int LEGACY_BOOKING_MINUTES = 35;
+    
+    // A booking in one of these statuses is settled and no longer changes status
+    private static final List<Booking.BookingStatus> FINAL_STATUSES = List.of(
+            Booking.BookingStatus.COMPLETED, Booking.BookingStatus.CANCELLED, Booking.BookingStatus.NO_SHOW);
+    
     @Autowired
     private BookingRepository bookingRepository;
     
     @Autowired
-    private ServiceRepository serviceRepository;
+    private PartialUpdateRepository partialUpdates;
+    
+    @Autowired
+    private ServiceService serviceService;
+    
+    @Autowired
+    private StaffService staffService;
+    
+    @Autowired
+    private ShopService shopService;
+    
+    @Autowired
+    private StaffScheduleService staffScheduleService;
+    
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+    
+    @Autowired
+    private StaffDayOccupancyIndex occupancyIndex;
     
     @Autowired
-    private NotificationService notificationService;
+    private BookingReservationService reservationService;
+    
+    @Autowired
+    private BookingRollupService rollupService;
+    
+    @Value("${barberease.bookings.max-length-minutes:480}")
+    private int maxBookingMinutes;
     
     public Booking createBooking(BookingRequest bookingRequest, String userId) {
         // Get service details for pricing
-        com.barberease.model.Service service = serviceRepository.findById(bookingRequest.getServiceId())
-                .orElseThrow(() -> new RuntimeException("Service not found"));
-        
-        // Check for conflicts
-        List<Booking> conflicts = bookingRepository.findActiveBookingsByStaffAndDateRange(
-                bookingRequest.getStaffId(),
-                bookingRequest.getAppointmentDateTime(),
-                bookingRequest.getAppointmentDateTime().plusMinutes(service.getDurationMinutes())
-        );
-        
-        if (!conflicts.isEmpty()) {
-            throw new RuntimeException("Time slot is already booked");
+        com.barberease.model.Service service = serviceService.getServiceById(bookingRequest.getServiceId());
+        int bookingMinutes = service.getDurationMinutes() + service.getBufferTimeMinutes();
+        if (bookingMinutes > maxBookingMinutes) {
+            throw new BadRequestException("Bookings cannot be longer than " + maxBookingMinutes + " minutes");
         }
         
         Booking booking = new Booking();
+        booking.setId(new ObjectId().toHexString());
         booking.setShopId(bookingRequest.getShopId());
         booking.setStaffId(bookingRequest.getStaffId());
         booking.setUserId(userId);
         booking.setServiceId(bookingRequest.getServiceId());
         booking.setAppointmentDateTime(bookingRequest.getAppointmentDateTime());
+        booking.setEndDateTime(bookingRequest.getAppointmentDateTime().plusMinutes(bookingMinutes));
         booking.setNotes(bookingRequest.getNotes());
         booking.setTotalAmount(service.getPrice());
         booking.setStatus(Booking.BookingStatus.PENDING);
@@ -54,15 +98,40 @@ public class BookingService {
         booking.setCreatedAt(LocalDateTime.now());
         booking.setUpdatedAt(LocalDateTime.now());
         
-        Booking savedBooking = bookingRepository.save(booking);
+        // Creates for the same staff member are serialized; other staff proceed in parallel
+        Booking savedBooking = reservationService.withStaffLock(bookingRequest.getStaffId(), () -> {
+            // Check for conflicts
+            List<Booking> conflicts = bookingRepository.findOverlappingActiveBookings(
+                    booking.getStaffId(),
+                    booking.getAppointmentDateTime().minusMinutes(maxBookingMinutes),
+                    booking.getAppointmentDateTime(),
+                    booking.getEndDateTime()
+            );
+            
+            if (!conflicts.isEmpty()) {
+                throw new RuntimeException("Time slot is already booked");
+            }
+            
+            // Claim the slots in Mongo so that concurrent creates on other nodes are rejected too
+            reservationService.claim(
+                    booking.getStaffId(),
+                    booking.getId(),
+                    booking.getAppointmentDateTime(),
+                    booking.getEndDateTime()
+            );
+            
+            try {
+                return bookingRepository.save(booking);
+            } catch (RuntimeException e) {
+                reservationService.release(booking.getId());
+                throw e;
+            }
+        });
+        occupancyIndex.add(savedBooking);
+        rollupService.recordCreated(savedBooking);
         
-        // Send notification
-        try {
-            notificationService.sendBookingConfirmation(savedBooking);
-        } catch (Exception e) {
-            // Log error but don't fail booking creation
-            System.err.println("Failed to send notification: " + e.getMessage());
-        }
+        // Send notification asynchronously; failures never affect booking creation
+        notificationDispatcher.dispatch(savedBooking, Notification.NotificationType.BOOKING_CONFIRMED);
         
         return savedBooking;
     }
@@ -71,35 +140,69 @@ public class BookingService {
         return bookingRepository.findByUserId(userId);
     }
     
+    public CursorPage<Booking> getBookingsByUser(String userId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        Pageable window = PageCursor.fetchWindow(pageSize, "appointmentDateTime");
+        List<Booking> fetched;
+        if (cursor == null) {
+            fetched = bookingRepository.findByUserId(userId, window);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            fetched = bookingRepository.findNextPageByUserId(userId, position.getTimestamp(), position.getIdValue(), window);
+        }
+        return PageCursor.toPage(fetched, pageSize, BookingService::cursorOf);
+    }
+    
     public Booking getBookingById(String id) {
         return bookingRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Booking not found with id: " + id));
     }
     
     public Booking cancelBooking(String id, String reason) {
-        Booking booking = getBookingById(id);
-        booking.setStatus(Booking.BookingStatus.CANCELLED);
-        booking.setCancellationReason(reason);
-        booking.setCancelledAt(LocalDateTime.now());
-        booking.setUpdatedAt(LocalDateTime.now());
+        PartialUpdateRepository.Transition<Booking> transition = partialUpdates.transition(
+                where("id").is(id).and("status").nin(FINAL_STATUSES),
+                new Update()
+                        .set("status", Booking.BookingStatus.CANCELLED)
+                        .set("cancellationReason", reason)
+                        .set("cancelledAt", LocalDateTime.now()),
+                Booking.class);
+        if (transition == null) {
+            throw notAllowed(id, "cancelled");
+        }
         
-        Booking savedBooking = bookingRepository.save(booking);
+        Booking savedBooking = transition.getAfter();
+        occupancyIndex.remove(savedBooking);
+        reservationService.release(savedBooking.getId());
+        rollupService.recordStatusChange(savedBooking, transition.getBefore().getStatus());
         
-        // Send cancellation notification
-        try {
-            notificationService.sendBookingCancellation(savedBooking);
-        } catch (Exception e) {
-            System.err.println("Failed to send cancellation notification: " + e.getMessage());
-        }
+        // Send cancellation notification asynchronously
+        notificationDispatcher.dispatch(savedBooking, Notification.NotificationType.BOOKING_CANCELLED);
         
         return savedBooking;
     }
     
     public Booking updateBookingStatus(String id, Booking.BookingStatus status) {
+        PartialUpdateRepository.Transition<Booking> transition = partialUpdates.transition(
+                where("id").is(id).and("status").nin(FINAL_STATUSES),
+                new Update().set("status", status),
+                Booking.class);
+        if (transition == null) {
+            throw notAllowed(id, "updated");
+        }
+        
+        Booking savedBooking = transition.getAfter();
+        occupancyIndex.update(savedBooking);
+        if (status == Booking.BookingStatus.CANCELLED || status == Booking.BookingStatus.NO_SHOW) {
+            reservationService.release(savedBooking.getId());
+        }
+        rollupService.recordStatusChange(savedBooking, transition.getBefore().getStatus());
+        return savedBooking;
+    }
+    
+    // Reached only when the transition matched nothing: either the booking does not exist or it is final
+    private RuntimeException notAllowed(String id, String action) {
         Booking booking = getBookingById(id);
-        booking.setStatus(status);
-        booking.setUpdatedAt(LocalDateTime.now());
-        return bookingRepository.save(booking);
+        return new BadRequestException("Booking cannot be " + action + " once it is " + booking.getStatus());
     }
     
     public List<Booking> getBookingsByShop(String shopId, LocalDateTime startDate, LocalDateTime endDate) {
@@ -109,6 +212,19 @@ public class BookingService {
         return bookingRepository.findByShopId(shopId);
     }
     
+    public CursorPage<Booking> getBookingsByShop(String shopId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        Pageable window = PageCursor.fetchWindow(pageSize, "appointmentDateTime");
+        List<Booking> fetched;
+        if (cursor == null) {
+            fetched = bookingRepository.findByShopId(shopId, window);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            fetched = bookingRepository.findNextPageByShopId(shopId, position.getTimestamp(), position.getIdValue(), window);
+        }
+        return PageCursor.toPage(fetched, pageSize, BookingService::cursorOf);
+    }
+    
     public List<Booking> getBookingsByStaff(String staffId, LocalDateTime startDate, LocalDateTime endDate) {
         if (startDate != null && endDate != null) {
             return bookingRepository.findByStaffIdAndAppointmentDateTimeBetween(staffId, startDate, endDate);
@@ -118,47 +234,95 @@ public class BookingService {
     
     public List<LocalDateTime> getAvailableSlots(String shopId, String staffId, String serviceId, LocalDateTime date) {
         // Get service duration
-        com.barberease.model.Service service = serviceRepository.findById(serviceId)
-                .orElseThrow(() -> new RuntimeException("Service not found"));
+        com.barberease.model.Service service = serviceService.getServiceById(serviceId);
         
-        int serviceDuration = service.getDurationMinutes() + service.getBufferTimeMinutes();
+        StaffSchedule schedule = staffScheduleService.getSchedule(
+                staffService.getStaffById(staffId), shopService.getShopById(shopId));
         
         // Get existing bookings for the day
-        LocalDateTime startOfDay = date.toLocalDate().atStartOfDay();
-        LocalDateTime endOfDay = date.toLocalDate().atTime(23, 59, 59);
+        StaffDayOccupancyIndex.DayOccupancy occupancy = occupancyIndex.getDay(staffId, date.toLocalDate());
+        
+        return generateSlots(date.toLocalDate(), service, schedule, occupancy, LocalDateTime.now());
+    }
+    
+    public List<StaffAvailabilityDto> getShopAvailability(String shopId, String serviceId, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new BadRequestException("End date must not be before start date");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_AVAILABILITY_DAYS) {
+            throw new BadRequestException("Date range must not exceed " + MAX_AVAILABILITY_DAYS + " days");
+        }
+        
+        com.barberease.model.Service service = serviceService.getServiceById(serviceId);
+        com.barberease.model.Shop shop = shopService.getShopById(shopId);
         
-        List<Booking> existingBookings = bookingRepository.findActiveBookingsByStaffAndDateRange(
-                staffId, startOfDay, endOfDay
-        );
+        List<Staff> staffMembers = staffService.getStaffByShop(shopId);
         
-        // Generate time slots (9 AM to 6 PM, 30-minute intervals)
+        // One query for the whole shop and range, grouped by staff member and every day a booking
+        // reaches into, so one running past midnight from the evening before the range is included
+        Map<String, Map<LocalDate, List<Booking>>> bookingsByStaffAndDay = new HashMap<>();
+        for (Booking booking : bookingRepository.findActiveBookingsByShopAndDateRange(shopId,
+                startDate.atStartOfDay().minusMinutes(maxBookingMinutes), endDate.plusDays(1).atStartOfDay())) {
+            for (LocalDate day : StaffDayOccupancyIndex.daysSpanned(booking)) {
+                bookingsByStaffAndDay.computeIfAbsent(booking.getStaffId(), staffId -> new HashMap<>())
+                        .computeIfAbsent(day, d -> new ArrayList<>())
+                        .add(booking);
+            }
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        
+        return staffMembers.parallelStream()
+                .map(staff -> {
+                    StaffSchedule schedule = staffScheduleService.getSchedule(staff, shop);
+                    Map<LocalDate, List<Booking>> staffBookings =
+                            bookingsByStaffAndDay.getOrDefault(staff.getId(), Collections.emptyMap());
+                    Map<LocalDate, List<LocalDateTime>> slots = new LinkedHashMap<>();
+                    
+                    for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+                        StaffDayOccupancyIndex.DayOccupancy occupancy = occupancyIndex.prime(
+                                staff.getId(), day, staffBookings.getOrDefault(day, Collections.emptyList()));
+                        slots.put(day, generateSlots(day, service, schedule, occupancy, now));
+                    }
+                    
+                    return new StaffAvailabilityDto(staff.getId(), staff.getName(), slots);
+                })
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * Starts from the working minutes of the compiled schedule, stepping by the
+     * shop's slot length from the start of each working stretch. A slot needs
+     * room for the whole service before the stretch ends, and the service plus
+     * its buffer must not overlap a booking.
+     */
+    private List<LocalDateTime> generateSlots(LocalDate day, com.barberease.model.Service service,
+                                              StaffSchedule schedule, StaffDayOccupancyIndex.DayOccupancy occupancy,
+                                              LocalDateTime now) {
         List<LocalDateTime> availableSlots = new ArrayList<>();
-        LocalDateTime slot = date.toLocalDate().atTime(9, 0);
-        LocalDateTime endTime = date.toLocalDate().atTime(18, 0);
+        if (day.isAfter(now.toLocalDate().plusDays(schedule.getMaxAdvanceBookingDays()))) {
+            return availableSlots;
+        }
         
-        while (slot.isBefore(endTime)) {
-            LocalDateTime slotEnd = slot.plusMinutes(serviceDuration);
-            
-            // Check if slot conflicts with existing bookings
-            boolean isAvailable = true;
-            for (Booking booking : existingBookings) {
-                LocalDateTime bookingEnd = booking.getAppointmentDateTime()
-                        .plusMinutes(serviceDuration);
-                
-                if ((slot.isBefore(bookingEnd) && slotEnd.isAfter(booking.getAppointmentDateTime()))) {
-                    isAvailable = false;
-                    break;
+        int serviceMinutes = service.getDurationMinutes();
+        int bookingLength = serviceMinutes + service.getBufferTimeMinutes();
+        BitSet working = schedule.workingMinutes(day);
+        
+        for (int stretchStart = working.nextSetBit(0); stretchStart >= 0;
+             stretchStart = working.nextSetBit(working.nextClearBit(stretchStart))) {
+            int stretchEnd = working.nextClearBit(stretchStart);
+            for (int start = stretchStart; start + serviceMinutes <= stretchEnd; start += schedule.getSlotMinutes()) {
+                LocalDateTime slot = day.atStartOfDay().plusMinutes(start);
+                if (slot.isAfter(now) && !occupancy.overlaps(start, start + bookingLength)) {
+                    availableSlots.add(slot);
                 }
             }
-            
-            if (isAvailable && slot.isAfter(LocalDateTime.now())) {
-                availableSlots.add(slot);
-            }
-            
-            slot = slot.plusMinutes(30); // 30-minute intervals
         }
         
         return availableSlots;
     }
+    
+    private static PageCursor cursorOf(Booking booking) {
+        return new PageCursor(booking.getAppointmentDateTime(), booking.getId());
+    }
 }
-
@@ -0,0 +1,291 @@
+package com.barberease.service;
+
+import com.barberease.dto.SearchHit;
+import com.barberease.model.Service;
+import com.barberease.model.Shop;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * In-process typeahead over active shops and services.
+ *
+ * Names, descriptions and categories are split into lower-case terms and kept
+ * in an inverted index: a ConcurrentSkipListMap from term to the entries that
+ * contain it, so a prefix lookup is one sorted sub-map walk. Every query term
+ * is matched as a prefix and the results are intersected. ServiceService and
+ * ShopService update the index on each write; a periodic rebuild from Mongo
+ * picks up writes made by other instances. Local writes made while a rebuild
+ * is reading are replayed onto the new index before it is swapped in.
+ */
+@Component
+public class CatalogueSearchIndex {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogueSearchIndex.class);
+    
+    private static final int MAX_RESULTS = 50;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    private volatile Index index = new Index();
+    
+    // Guards the swap in rebuild() against local writes, which are journaled while a rebuild runs
+    private final Object writeLock = new Object();
+    private List<Consumer<Index>> pendingWrites;
+    
+    private static class Entry {
+        final SearchHit hit;
+        final Set<String> terms;
+        final Set<String> nameTerms;
+        
+        Entry(SearchHit hit, Set<String> terms, Set<String> nameTerms) {
+            this.hit = hit;
+            this.terms = terms;
+            this.nameTerms = nameTerms;
+        }
+    }
+    
+    private static class Index {
+        final ConcurrentSkipListMap<String, Set<String>> postings = new ConcurrentSkipListMap<>();
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        
+        // Writes are rare and serialized so an entry's postings never mix two versions; reads never lock
+        synchronized void put(String key, Entry entry) {
+            remove(key);
+            entries.put(key, entry);
+            for (String term : entry.terms) {
+                postings.computeIfAbsent(term, t -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+        }
+        
+        synchronized void remove(String key) {
+            Entry previous = entries.remove(key);
+            if (previous == null) {
+                return;
+            }
+            for (String term : previous.terms) {
+                postings.computeIfPresent(term, (t, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${barberease.search.rebuild-interval-ms:600000}",
+               initialDelayString = "${barberease.search.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        synchronized (writeLock) {
+            pendingWrites = new ArrayList<>();
+        }
+        
+        Index rebuilt = new Index();
+        Set<String> activeShopIds = new HashSet<>();
+        
+        Query activeShops = query(where("active").is(true));
+        activeShops.fields().include("name", "description");
+        try (Stream<Shop> shops = mongoTemplate.stream(activeShops, Shop.class)) {
+            shops.forEach(shop -> {
+                activeShopIds.add(shop.getId());
+                rebuilt.put(shopKey(shop.getId()), shopEntry(shop));
+            });
+        }
+        
+        Query activeServices = query(where("active").is(true));
+        activeServices.fields().include("name", "description", "category", "shopId");
+        try (Stream<Service> services = mongoTemplate.stream(activeServices, Service.class)) {
+            services.filter(service -> activeShopIds.contains(service.getShopId()))
+                    .forEach(service -> rebuilt.put(serviceKey(service.getId()), serviceEntry(service)));
+        }
+        
+        synchronized (writeLock) {
+            pendingWrites.forEach(write -> write.accept(rebuilt));
+            pendingWrites = null;
+            index = rebuilt;
+        }
+        logger.info("Catalogue search index rebuilt: {} entries, {} terms", rebuilt.entries.size(), rebuilt.postings.size());
+    }
+    
+    public void indexShop(Shop shop) {
+        if (!shop.isActive()) {
+            removeShop(shop.getId());
+            return;
+        }
+        Entry entry = shopEntry(shop);
+        write(current -> current.put(shopKey(shop.getId()), entry));
+    }
+    
+    /**
+     * Removes the shop and its services, which are no longer bookable.
+     */
+    public void removeShop(String shopId) {
+        write(current -> {
+            current.remove(shopKey(shopId));
+            for (Map.Entry<String, Entry> entry : current.entries.entrySet()) {
+                if (entry.getValue().hit.getType() == SearchHit.Type.SERVICE
+                        && shopId.equals(entry.getValue().hit.getShopId())) {
+                    current.remove(entry.getKey());
+                }
+            }
+        });
+    }
+    
+    /**
+     * Indexes the service if it is active and its shop is, as rebuild() does.
+     * Only active shops are in the index, so that is checked in memory.
+     */
+    public void indexService(Service service) {
+        if (!service.isActive()) {
+            removeService(service.getId());
+            return;
+        }
+        String key = serviceKey(service.getId());
+        Entry entry = serviceEntry(service);
+        write(current -> {
+            if (current.entries.containsKey(shopKey(service.getShopId()))) {
+                current.put(key, entry);
+            } else {
+                current.remove(key);
+            }
+        });
+    }
+    
+    public void removeService(String serviceId) {
+        write(current -> current.remove(serviceKey(serviceId)));
+    }
+    
+    private void write(Consumer<Index> write) {
+        synchronized (writeLock) {
+            write.accept(index);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        }
+    }
+    
+    /**
+     * Entries matching every term of the query as a prefix. Entries whose name
+     * matches come first, then alphabetically by name.
+     */
+    public List<SearchHit> search(String text, int limit) {
+        List<String> terms = new ArrayList<>(tokenize(text));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        Index current = index;
+        // Most selective term first, so the intersection shrinks quickly
+        terms.sort(Comparator.comparingInt(String::length).reversed());
+        
+        Set<String> matches = null;
+        for (String term : terms) {
+            Set<String> termMatches = new HashSet<>();
+            for (Set<String> keys : current.postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+                if (matches == null) {
+                    termMatches.addAll(keys);
+                } else {
+                    for (String key : keys) {
+                        if (matches.contains(key)) {
+                            termMatches.add(key);
+                        }
+                    }
+                }
+            }
+            matches = termMatches;
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+        }
+        
+        String firstTerm = tokenize(text).iterator().next();
+        List<Entry> ranked = new ArrayList<>();
+        for (String key : matches) {
+            Entry entry = current.entries.get(key);
+            if (entry != null) {
+                ranked.add(entry);
+            }
+        }
+        ranked.sort(Comparator
+                .comparing((Entry entry) -> !startsAnyTerm(entry.nameTerms, firstTerm))
+                .thenComparing(entry -> entry.hit.getName(), String.CASE_INSENSITIVE_ORDER));
+        
+        int size = Math.min(Math.max(limit, 1), Math.min(MAX_RESULTS, ranked.size()));
+        List<SearchHit> hits = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            hits.add(ranked.get(i).hit);
+        }
+        return hits;
+    }
+    
+    static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String term : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+    
+    private static boolean startsAnyTerm(Set<String> terms, String prefix) {
+        for (String term : terms) {
+            if (term.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static Entry shopEntry(Shop shop) {
+        Set<String> nameTerms = tokenize(shop.getName());
+        Set<String> terms = new HashSet<>(nameTerms);
+        terms.addAll(tokenize(shop.getDescription()));
+        return new Entry(new SearchHit(SearchHit.Type.SHOP, shop.getId(), shop.getId(), shop.getName(), null),
+                terms, nameTerms);
+    }
+    
+    private static Entry serviceEntry(Service service) {
+        Set<String> nameTerms = tokenize(service.getName());
+        Set<String> terms = new HashSet<>(nameTerms);
+        terms.addAll(tokenize(service.getDescription()));
+        if (service.getCategory() != null) {
+            terms.addAll(tokenize(service.getCategory().name()));
+        }
+        return new Entry(new SearchHit(SearchHit.Type.SERVICE, service.getId(), service.getShopId(),
+                service.getName(), service.getCategory()), terms, nameTerms);
+    }
+    
+    private static String shopKey(String id) {
+        return "shop:" + id;
+    }
+    
+    private static String serviceKey(String id) {
+        return "service:" + id;
+    }
+}
@@ -0,0 +1,82 @@
+package com.barberease.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Consecutive-failure circuit breaker.
+ *
+ * CLOSED lets every call through. failureThreshold failures in a row open the
+ * circuit, and calls are refused for openMillis. After that one trial call is
+ * let through (HALF_OPEN): if it succeeds the circuit closes, if it fails it
+ * opens again. Callers report every call they were allowed to make through
+ * onSuccess, onFailure or onIgnored.
+ */
+class CircuitBreaker {
+    
+    enum State { CLOSED, HALF_OPEN, OPEN }
+    
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+    
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+    
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+    
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = Math.max(failureThreshold, 1);
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+    
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+    
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+    
+    synchronized void onFailure() {
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+            failures = 0;
+        }
+    }
+    
+    // The call never reached the gateway, so it says nothing about its health
+    synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+    
+    synchronized State getState() {
+        return state;
+    }
+    
+    synchronized long retryAfterMillis() {
+        return state == State.OPEN ? Math.max(openMillis - (clock.getAsLong() - openedAt), 0) : 0;
+    }
+}
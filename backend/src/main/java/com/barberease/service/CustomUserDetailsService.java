@@ -4,6 +4,7 @@ import com.barberease.model.User;
 import com.barberease.repository.UserRepository;
 import com.barberease.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -25,6 +26,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         return UserPrincipal.create(user);
     }
     
+    @Cacheable(value = "users", key = "#id")
     @Transactional
     public UserDetails loadUserById(String id) {
         User user = userRepository.findById(id)
@@ -0,0 +1,109 @@
+package com.barberease.service;
+
+import com.barberease.dto.CursorPage;
+import com.barberease.dto.NearbyShop;
+import com.barberease.exception.BadRequestException;
+import com.barberease.model.Service;
+import com.barberease.model.Shop;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.geo.Distance;
+import org.springframework.data.geo.Metrics;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * "Shops near me": one $geoNear aggregation over the 2dsphere index on
+ * Shop.location, nearest first.
+ *
+ * The category and open-now filters run inside $geoNear against fields that
+ * ShopService derives on write (serviceCategories, and openIntervals in
+ * minutes of the week), so no join with services and no parsing of business
+ * hours happens per request. Pages are offsets into the distance ordering,
+ * handed out as opaque cursors.
+ */
+@org.springframework.stereotype.Service
+public class NearbyShopService {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${barberease.nearby.max-radius-km:50}")
+    private double maxRadiusKm;
+    
+    public CursorPage<NearbyShop> findNearby(double latitude, double longitude, double radiusKm,
+                                             Service.ServiceCategory category, boolean openNow,
+                                             String cursor, Integer limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BadRequestException("Latitude must be within [-90, 90] and longitude within [-180, 180]");
+        }
+        if (radiusKm <= 0 || radiusKm > maxRadiusKm) {
+            throw new BadRequestException("Radius must be greater than 0 and at most " + maxRadiusKm + " km");
+        }
+        int pageSize = PageCursor.clampLimit(limit);
+        int offset = cursor == null ? 0 : decodeOffset(cursor);
+        
+        List<NearbyShop> fetched = mongoTemplate.aggregate(
+                nearbyAggregation(latitude, longitude, radiusKm, category, openNow ? LocalDateTime.now() : null,
+                        offset, pageSize + 1),
+                NearbyShop.class).getMappedResults();
+        
+        if (fetched.size() <= pageSize) {
+            return new CursorPage<>(fetched, null);
+        }
+        return new CursorPage<>(fetched.subList(0, pageSize), encodeOffset(offset + pageSize));
+    }
+    
+    TypedAggregation<Shop> nearbyAggregation(double latitude, double longitude, double radiusKm,
+                                             Service.ServiceCategory category, LocalDateTime openAt,
+                                             int offset, int limit) {
+        Criteria filter = where("active").is(true);
+        if (category != null) {
+            filter.and("serviceCategories").is(category);
+        }
+        if (openAt != null) {
+            int minute = OpeningHours.minuteOfWeek(openAt);
+            filter.and("openIntervals").elemMatch(where("start").lte(minute).and("end").gt(minute));
+        }
+        
+        NearQuery near = NearQuery.near(new GeoJsonPoint(longitude, latitude))
+                .spherical(true)
+                .maxDistance(new Distance(radiusKm, Metrics.KILOMETERS))
+                .query(new Query(filter));
+        
+        return Aggregation.newAggregation(Shop.class,
+                Aggregation.geoNear(near, "distanceKm"),
+                Aggregation.skip((long) offset),
+                Aggregation.limit(limit),
+                Aggregation.project("name", "address", "phone", "businessHours", "location", "distanceKm"));
+    }
+    
+    private static String encodeOffset(int offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Integer.toString(offset).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static int decodeOffset(String cursor) {
+        try {
+            int offset = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (offset < 0) {
+                throw new BadRequestException("Invalid page cursor");
+            }
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.barberease.service;
+
+import com.barberease.model.Booking;
+import com.barberease.model.Notification;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends booking notifications off the request thread.
+ *
+ * Dispatch hands the work to a bounded pool and returns immediately; workers
+ * render and store the notification, leased so the retry sweep leaves it alone
+ * while it is in flight, and pass it to BatchingEmailSender. When the queue is
+ * full the notification is written to the notifications collection as PENDING
+ * and due instead, which acts as the outbox: a scheduled sweep claims due PENDING
+ * notifications, including failed sends waiting for their backoff, and delivers them.
+ */
+@Component
+public class NotificationDispatcher {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+    
+    @Autowired
+    private NotificationService notificationService;
+    
+    @Autowired
+    private BatchingEmailSender emailSender;
+    
+    @Value("${barberease.notifications.workers:4}")
+    private int workers;
+    
+    @Value("${barberease.notifications.queue-capacity:1000}")
+    private int queueCapacity;
+    
+    @Value("${barberease.notifications.retry-batch-size:100}")
+    private int retryBatchSize;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+    
+    public void dispatch(Booking booking, Notification.NotificationType type) {
+        try {
+            executor.execute(() -> {
+                try {
+                    Notification notification = notificationService.prepareBookingNotification(booking, type, true);
+                    if (notification != null) {
+                        emailSender.submit(notification);
+                    }
+                } catch (Exception e) {
+                    logger.error("Failed to send {} notification for booking {}", type, booking.getId(), e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Backpressure: persist to the outbox and let the retry sweep send it
+            logger.warn("Notification queue full, deferring {} notification for booking {}", type, booking.getId());
+            try {
+                notificationService.prepareBookingNotification(booking, type, false);
+            } catch (Exception ex) {
+                logger.error("Failed to store {} notification for booking {}", type, booking.getId(), ex);
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${barberease.notifications.retry-interval-ms:30000}")
+    public void retryDueNotifications() {
+        for (Notification notification : notificationService.claimDueNotifications(retryBatchSize)) {
+            emailSender.submit(notification);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.barberease.service;
 
+import com.barberease.dto.CursorPage;
 import com.barberease.model.Booking;
 import com.barberease.model.Notification;
 import com.barberease.model.User;
@@ -7,27 +8,39 @@ import com.barberease.repository.NotificationRepository;
 import com.barberease.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
 @Service
 public class NotificationService {
     
+    // How long a claimed notification is hidden from retry sweeps
+    private static final long CLAIM_LEASE_MINUTES = 5;
+    
     @Autowired
     private NotificationRepository notificationRepository;
     
     @Autowired
     private UserRepository userRepository;
     
-    @Autowired(required = false)
-    private JavaMailSender mailSender;
+    @Autowired
+    private MongoTemplate mongoTemplate;
     
-    @Value("${spring.mail.username:noreply@barberease.com}")
-    private String fromEmail;
+    @Value("${barberease.notifications.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${barberease.notifications.retry-backoff-seconds:30}")
+    private long retryBackoffSeconds;
     
     public Notification createNotification(Notification notification) {
         notification.setCreatedAt(LocalDateTime.now());
@@ -39,133 +52,133 @@ public class NotificationService {
         return notificationRepository.findByUserId(userId);
     }
     
-    public void sendBookingConfirmation(Booking booking) {
-        User user = userRepository.findById(booking.getUserId()).orElse(null);
-        if (user == null) return;
-        
-        Notification notification = new Notification();
-        notification.setUserId(booking.getUserId());
-        notification.setBookingId(booking.getId());
-        notification.setMessage("Your booking has been confirmed for " + booking.getAppointmentDateTime());
-        notification.setType(Notification.NotificationType.BOOKING_CONFIRMED);
-        notification.setChannel(Notification.NotificationChannel.EMAIL);
-        notification.setRecipientEmail(user.getEmail());
-        
-        Notification savedNotification = createNotification(notification);
-        
-        // Send email
-        try {
-            sendEmail(
-                user.getEmail(),
-                "Booking Confirmation - BarberEase",
-                "Hello " + user.getName() + ",\n\n" +
-                "Your booking has been confirmed!\n" +
-                "Date & Time: " + booking.getAppointmentDateTime() + "\n" +
-                "Booking ID: " + booking.getId() + "\n\n" +
-                "Thank you for choosing BarberEase!\n\n" +
-                "Best regards,\n" +
-                "BarberEase Team"
-            );
-            
-            savedNotification.setStatus(Notification.NotificationStatus.SENT);
-            savedNotification.setSentAt(LocalDateTime.now());
-        } catch (Exception e) {
-            savedNotification.setStatus(Notification.NotificationStatus.FAILED);
-            savedNotification.setFailureReason(e.getMessage());
+    public CursorPage<Notification> getNotificationsByUser(String userId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        Pageable window = PageCursor.fetchWindow(pageSize, "createdAt");
+        List<Notification> fetched;
+        if (cursor == null) {
+            fetched = notificationRepository.findByUserId(userId, window);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            fetched = notificationRepository.findNextPageByUserId(userId, position.getTimestamp(), position.getIdValue(), window);
         }
-        
-        notificationRepository.save(savedNotification);
+        return PageCursor.toPage(fetched, pageSize, notification -> new PageCursor(notification.getCreatedAt(), notification.getId()));
     }
     
-    public void sendBookingCancellation(Booking booking) {
+    /**
+     * Renders and stores a PENDING notification for the booking. A leased
+     * notification is about to be sent by the caller, so it is stored already
+     * claimed and retry sweeps only pick it up if that send never reports back;
+     * otherwise it is due immediately. Returns null if the booking's user no
+     * longer exists.
+     */
+    public Notification prepareBookingNotification(Booking booking, Notification.NotificationType type, boolean leased) {
         User user = userRepository.findById(booking.getUserId()).orElse(null);
-        if (user == null) return;
+        if (user == null) return null;
         
         Notification notification = new Notification();
         notification.setUserId(booking.getUserId());
         notification.setBookingId(booking.getId());
-        notification.setMessage("Your booking has been cancelled");
-        notification.setType(Notification.NotificationType.BOOKING_CANCELLED);
+        notification.setType(type);
         notification.setChannel(Notification.NotificationChannel.EMAIL);
         notification.setRecipientEmail(user.getEmail());
+        notification.setNextAttemptAt(leased ? LocalDateTime.now().plusMinutes(CLAIM_LEASE_MINUTES) : LocalDateTime.now());
         
-        Notification savedNotification = createNotification(notification);
-        
-        // Send email
-        try {
-            sendEmail(
-                user.getEmail(),
-                "Booking Cancellation - BarberEase",
-                "Hello " + user.getName() + ",\n\n" +
-                "Your booking has been cancelled.\n" +
-                "Booking ID: " + booking.getId() + "\n" +
-                "Reason: " + (booking.getCancellationReason() != null ? booking.getCancellationReason() : "N/A") + "\n\n" +
-                "If you have any questions, please contact us.\n\n" +
-                "Best regards,\n" +
-                "BarberEase Team"
-            );
-            
-            savedNotification.setStatus(Notification.NotificationStatus.SENT);
-            savedNotification.setSentAt(LocalDateTime.now());
-        } catch (Exception e) {
-            savedNotification.setStatus(Notification.NotificationStatus.FAILED);
-            savedNotification.setFailureReason(e.getMessage());
+        switch (type) {
+            case BOOKING_CANCELLED:
+                notification.setMessage("Your booking has been cancelled");
+                notification.setSubject("Booking Cancellation - BarberEase");
+                notification.setBody(
+                    "Hello " + user.getName() + ",\n\n" +
+                    "Your booking has been cancelled.\n" +
+                    "Booking ID: " + booking.getId() + "\n" +
+                    "Reason: " + (booking.getCancellationReason() != null ? booking.getCancellationReason() : "N/A") + "\n\n" +
+                    "If you have any questions, please contact us.\n\n" +
+                    "Best regards,\n" +
+                    "BarberEase Team"
+                );
+                break;
+            case BOOKING_REMINDER:
+                notification.setMessage("Reminder: You have an appointment tomorrow");
+                notification.setSubject("Appointment Reminder - BarberEase");
+                notification.setBody(
+                    "Hello " + user.getName() + ",\n\n" +
+                    "This is a reminder about your upcoming appointment.\n" +
+                    "Date & Time: " + booking.getAppointmentDateTime() + "\n" +
+                    "Booking ID: " + booking.getId() + "\n\n" +
+                    "We look forward to seeing you!\n\n" +
+                    "Best regards,\n" +
+                    "BarberEase Team"
+                );
+                break;
+            default:
+                notification.setMessage("Your booking has been confirmed for " + booking.getAppointmentDateTime());
+                notification.setSubject("Booking Confirmation - BarberEase");
+                notification.setBody(
+                    "Hello " + user.getName() + ",\n\n" +
+                    "Your booking has been confirmed!\n" +
+                    "Date & Time: " + booking.getAppointmentDateTime() + "\n" +
+                    "Booking ID: " + booking.getId() + "\n\n" +
+                    "Thank you for choosing BarberEase!\n\n" +
+                    "Best regards,\n" +
+                    "BarberEase Team"
+                );
+                break;
         }
         
-        notificationRepository.save(savedNotification);
+        return createNotification(notification);
     }
     
-    public void sendBookingReminder(Booking booking) {
-        User user = userRepository.findById(booking.getUserId()).orElse(null);
-        if (user == null) return;
-        
-        Notification notification = new Notification();
-        notification.setUserId(booking.getUserId());
-        notification.setBookingId(booking.getId());
-        notification.setMessage("Reminder: You have an appointment tomorrow");
-        notification.setType(Notification.NotificationType.BOOKING_REMINDER);
-        notification.setChannel(Notification.NotificationChannel.EMAIL);
-        notification.setRecipientEmail(user.getEmail());
-        
-        Notification savedNotification = createNotification(notification);
+    public void recordSent(Notification notification) {
+        notification.setStatus(Notification.NotificationStatus.SENT);
+        notification.setSentAt(LocalDateTime.now());
+        notification.setNextAttemptAt(null);
+        notification.setUpdatedAt(LocalDateTime.now());
+        notificationRepository.save(notification);
+    }
+    
+    /**
+     * Records a failed send. The notification stays PENDING with an exponentially
+     * growing nextAttemptAt until maxAttempts is reached, after which it is FAILED.
+     */
+    public void recordFailure(Notification notification, String reason) {
+        notification.setAttempts(notification.getAttempts() + 1);
+        notification.setFailureReason(reason);
         
-        // Send email
-        try {
-            sendEmail(
-                user.getEmail(),
-                "Appointment Reminder - BarberEase",
-                "Hello " + user.getName() + ",\n\n" +
-                "This is a reminder about your upcoming appointment.\n" +
-                "Date & Time: " + booking.getAppointmentDateTime() + "\n" +
-                "Booking ID: " + booking.getId() + "\n\n" +
-                "We look forward to seeing you!\n\n" +
-                "Best regards,\n" +
-                "BarberEase Team"
-            );
-            
-            savedNotification.setStatus(Notification.NotificationStatus.SENT);
-            savedNotification.setSentAt(LocalDateTime.now());
-        } catch (Exception e) {
-            savedNotification.setStatus(Notification.NotificationStatus.FAILED);
-            savedNotification.setFailureReason(e.getMessage());
+        if (notification.getAttempts() >= maxAttempts) {
+            notification.setStatus(Notification.NotificationStatus.FAILED);
+            notification.setNextAttemptAt(null);
+        } else {
+            long backoff = retryBackoffSeconds << (notification.getAttempts() - 1);
+            notification.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
         }
         
-        notificationRepository.save(savedNotification);
+        notification.setUpdatedAt(LocalDateTime.now());
+        notificationRepository.save(notification);
     }
     
-    private void sendEmail(String to, String subject, String body) {
-        if (mailSender == null) {
-            System.out.println("Mail sender not configured. Email not sent.");
-            return;
-        }
+    /**
+     * Atomically claims up to limit PENDING notifications that are due, pushing
+     * their nextAttemptAt forward by a lease so that other nodes skip them.
+     */
+    public List<Notification> claimDueNotifications(int limit) {
+        List<Notification> claimed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
         
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(body);
+        while (claimed.size() < limit) {
+            Notification notification = mongoTemplate.findAndModify(
+                    query(where("status").is(Notification.NotificationStatus.PENDING)
+                            .and("nextAttemptAt").lte(now)),
+                    new Update().set("nextAttemptAt", now.plusMinutes(CLAIM_LEASE_MINUTES)),
+                    FindAndModifyOptions.options().returnNew(true),
+                    Notification.class
+            );
+            if (notification == null) {
+                break;
+            }
+            claimed.add(notification);
+        }
         
-        mailSender.send(message);
+        return claimed;
     }
 }
-
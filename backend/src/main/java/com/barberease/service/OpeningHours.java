@@ -0,0 +1,97 @@
+package com.barberease.service;
+
+import com.barberease.model.Shop;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Turns the free-text business hours of a shop into minute-of-week intervals.
+ *
+ * Each weekday may hold one or more ranges separated by commas, such as
+ * "09:00-18:00", "9:00 AM - 6:30 PM" or "10:00-13:00, 14:00-19:00". "Closed",
+ * blank and unparseable values contribute no interval. A range whose end is not
+ * after its start runs past midnight into the next day. Minute 0 is Monday 00:00.
+ */
+public final class OpeningHours {
+    
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    
+    private static final Pattern RANGE = Pattern.compile(
+            "(\\d{1,2})(?:[:.](\\d{2}))?\\s*([ap]\\.?m\\.?)?\\s*(?:-|–|to)\\s*(\\d{1,2})(?:[:.](\\d{2}))?\\s*([ap]\\.?m\\.?)?");
+    
+    private OpeningHours() {}
+    
+    public static List<Shop.OpenInterval> weeklyIntervals(Shop.BusinessHours hours) {
+        List<Shop.OpenInterval> intervals = new ArrayList<>();
+        if (hours == null) {
+            return intervals;
+        }
+        String[] days = {
+            hours.getMonday(), hours.getTuesday(), hours.getWednesday(), hours.getThursday(),
+            hours.getFriday(), hours.getSaturday(), hours.getSunday()
+        };
+        for (int day = 0; day < days.length; day++) {
+            int dayStart = day * MINUTES_PER_DAY;
+            for (int[] range : parseDay(days[day])) {
+                int start = dayStart + range[0];
+                int end = dayStart + range[1];
+                if (end <= MINUTES_PER_WEEK) {
+                    intervals.add(new Shop.OpenInterval(start, end));
+                } else {
+                    // Sunday night into Monday morning wraps to the start of the week
+                    intervals.add(new Shop.OpenInterval(start, MINUTES_PER_WEEK));
+                    intervals.add(new Shop.OpenInterval(0, end - MINUTES_PER_WEEK));
+                }
+            }
+        }
+        return intervals;
+    }
+    
+    /**
+     * The ranges open on one day as [startMinute, endMinute) pairs relative to
+     * that day's midnight. The end may exceed a day for overnight hours.
+     */
+    public static List<int[]> parseDay(String text) {
+        List<int[]> ranges = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return ranges;
+        }
+        Matcher matcher = RANGE.matcher(text.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            int start = toMinute(matcher.group(1), matcher.group(2), matcher.group(3));
+            int end = toMinute(matcher.group(4), matcher.group(5), matcher.group(6));
+            if (start < 0 || end < 0 || start == end) {
+                continue;
+            }
+            ranges.add(new int[] {start, end > start ? end : end + MINUTES_PER_DAY});
+        }
+        return ranges;
+    }
+    
+    public static int minuteOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue()) * MINUTES_PER_DAY
+                + time.getHour() * 60 + time.getMinute();
+    }
+    
+    private static int toMinute(String hourText, String minuteText, String meridiem) {
+        int hour = Integer.parseInt(hourText);
+        int minute = minuteText == null ? 0 : Integer.parseInt(minuteText);
+        if (meridiem != null) {
+            if (hour < 1 || hour > 12) {
+                return -1;
+            }
+            hour = hour % 12 + (meridiem.startsWith("p") ? 12 : 0);
+        }
+        if (hour > 24 || minute > 59 || (hour == 24 && minute > 0)) {
+            return -1;
+        }
+        return hour * 60 + minute;
+    }
+}
@@ -0,0 +1,89 @@
+package com.barberease.service;
+
+import com.barberease.exception.ConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Retry policy for read-modify-write updates of versioned entities.
+ *
+ * The update is re-run from a fresh read when its save fails because another
+ * write got in first, with a short jittered backoff, up to max-attempts times;
+ * after that the OptimisticLockingFailureException propagates and becomes a 409.
+ * Updates on behalf of a client that sent the version it edited are not merged
+ * silently: checkVersion rejects them once the document has moved on.
+ *
+ * Every conflict is counted in barberease.version.conflicts, tagged with the
+ * entity and whether it was retried, exhausted the retries or was rejected.
+ */
+@Component
+public class OptimisticRetry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetry.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${barberease.optimistic-locking.max-attempts:3}")
+    private int maxAttempts;
+    
+    @Value("${barberease.optimistic-locking.backoff-ms:20}")
+    private long backoffMs;
+    
+    public <T> T run(String entity, Supplier<T> update) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return update.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= maxAttempts) {
+                    conflicts(entity, "exhausted").increment();
+                    logger.warn("Giving up on {} update after {} conflicting attempts", entity, attempt);
+                    throw e;
+                }
+                conflicts(entity, "retried").increment();
+                backOff(attempt, e);
+            }
+        }
+    }
+    
+    /**
+     * Throws ConflictException if the client sent a version and it is not the
+     * document's current one.
+     */
+    public void checkVersion(String entity, String id, Long expected, Long current) {
+        if (expected != null && !Objects.equals(expected, current)) {
+            conflicts(entity, "rejected").increment();
+            throw new ConflictException(entity + " " + id + " was changed by someone else (version "
+                    + expected + " is now " + current + ")", current);
+        }
+    }
+    
+    private Counter conflicts(String entity, String outcome) {
+        return Counter.builder("barberease.version.conflicts")
+                .tag("entity", entity)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+    
+    private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        if (backoffMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(backoffMs * attempt + ThreadLocalRandom.current().nextLong(backoffMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.barberease.service;
+
+import com.barberease.dto.CursorPage;
+import com.barberease.exception.BadRequestException;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position in a newest-first listing ordered by (timestamp, id).
+ *
+ * Pages are fetched with a keyset condition, timestamp &lt; t or (timestamp = t
+ * and id &lt; i), so every page is an index range scan whatever its depth. The
+ * cursor is handed to clients as an opaque URL-safe token.
+ */
+public final class PageCursor {
+    
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    
+    private final LocalDateTime timestamp;
+    private final String id;
+    
+    public PageCursor(LocalDateTime timestamp, String id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    /**
+     * The id as stored in _id, so that the keyset comparison is made against
+     * ObjectIds rather than strings.
+     */
+    public Object getIdValue() {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+    
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new BadRequestException("Invalid page cursor");
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid page cursor");
+        }
+    }
+    
+    public static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be positive");
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+    
+    /**
+     * One row more than the page size, newest first, so that the extra row tells
+     * whether another page exists.
+     */
+    public static Pageable fetchWindow(int limit, String timestampField) {
+        return PageRequest.of(0, limit + 1, Sort.by(Sort.Direction.DESC, timestampField, "id"));
+    }
+    
+    public static <T> CursorPage<T> toPage(List<T> fetched, int limit, Function<T, PageCursor> cursorOf) {
+        if (fetched.size() <= limit) {
+            return new CursorPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new CursorPage<>(items, cursorOf.apply(items.get(limit - 1)).encode());
+    }
+}
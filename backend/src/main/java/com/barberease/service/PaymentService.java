@@ -1,21 +1,26 @@
 package com.barberease.service;
 
+import com.barberease.dto.CursorPage;
+import com.barberease.exception.BadRequestException;
 import com.barberease.model.Booking;
 import com.barberease.model.Payment;
 import com.barberease.repository.BookingRepository;
+import com.barberease.repository.PartialUpdateRepository;
 import com.barberease.repository.PaymentRepository;
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
 import com.razorpay.RazorpayException;
 import com.razorpay.Utils;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 public class PaymentService {
     
@@ -25,8 +30,17 @@ public class PaymentService {
     @Autowired
     private BookingRepository bookingRepository;
     
-    @Value("${razorpay.key-id:}")
-    private String razorpayKeyId;
+    @Autowired
+    private PartialUpdateRepository partialUpdates;
+    
+    @Autowired
+    private BookingRollupService rollupService;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    @Autowired
+    private RazorpayGateway razorpayGateway;
     
     @Value("${razorpay.key-secret:}")
     private String razorpayKeySecret;
@@ -44,40 +58,39 @@ public class PaymentService {
         return paymentRepository.save(payment);
     }
     
+    /**
+     * Creates a Razorpay order for the booking and records it on the booking's
+     * payment. Fails with PaymentGatewayException, without touching the payment,
+     * when the gateway is unavailable.
+     */
     public String createRazorpayOrder(String bookingId, Double amount) throws RazorpayException {
-        if (razorpayKeyId == null || razorpayKeyId.isEmpty() || 
-            razorpayKeyId.startsWith("rzp_test_your")) {
+        if (!razorpayGateway.isConfigured()) {
             // Mock order ID for development
             return "order_mock_" + System.currentTimeMillis();
         }
         
+        // Amount in paise
+        String orderId = razorpayGateway.createOrder(Math.round(amount * 100), "INR", "booking_" + bookingId);
+        
         try {
-            RazorpayClient client = new RazorpayClient(razorpayKeyId, razorpayKeySecret);
-            
-            JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", (int)(amount * 100)); // Amount in paise
-            orderRequest.put("currency", "INR");
-            orderRequest.put("receipt", "booking_" + bookingId);
-            
-            Order order = client.orders.create(orderRequest);
-            
             // Update payment record
-            Payment payment = paymentRepository.findByBookingId(bookingId)
-                    .orElseGet(() -> createPayment(bookingId, "", amount));
-            payment.setRazorpayOrderId(order.get("id"));
-            payment.setStatus(Payment.PaymentStatus.PROCESSING);
-            payment.setUpdatedAt(LocalDateTime.now());
-            paymentRepository.save(payment);
+            optimisticRetry.run("payment", () -> {
+                Payment payment = paymentRepository.findByBookingId(bookingId)
+                        .orElseGet(() -> createPayment(bookingId, "", amount));
+                payment.setRazorpayOrderId(orderId);
+                payment.setStatus(Payment.PaymentStatus.PROCESSING);
+                payment.setUpdatedAt(LocalDateTime.now());
+                return paymentRepository.save(payment);
+            });
             
-            return order.get("id");
+            return orderId;
         } catch (Exception e) {
             throw new RazorpayException("Failed to create Razorpay order: " + e.getMessage());
         }
     }
     
     public boolean verifyPayment(String orderId, String paymentId, String signature) {
-        if (razorpayKeyId == null || razorpayKeyId.isEmpty() || 
-            razorpayKeyId.startsWith("rzp_test_your")) {
+        if (!razorpayGateway.isConfigured()) {
             // Mock verification for development
             return true;
         }
@@ -91,23 +104,45 @@ public class PaymentService {
             boolean isValid = Utils.verifyPaymentSignature(options, razorpayKeySecret);
             
             if (isValid) {
-                Payment payment = paymentRepository.findByRazorpayOrderId(orderId)
-                        .orElseThrow(() -> new RuntimeException("Payment not found"));
-                
-                payment.setRazorpayPaymentId(paymentId);
-                payment.setRazorpaySignature(signature);
-                payment.setStatus(Payment.PaymentStatus.COMPLETED);
-                payment.setUpdatedAt(LocalDateTime.now());
-                paymentRepository.save(payment);
+                // Only the first verification of an open order completes it; repeats, also after a
+                // refund, change nothing
+                Payment payment = partialUpdates.updateAndGet(
+                        where("razorpayOrderId").is(orderId)
+                                .and("status").in(Payment.PaymentStatus.PENDING, Payment.PaymentStatus.PROCESSING),
+                        new Update()
+                                .set("razorpayPaymentId", paymentId)
+                                .set("razorpaySignature", signature)
+                                .set("status", Payment.PaymentStatus.COMPLETED),
+                        Payment.class);
+                if (payment == null) {
+                    paymentRepository.findByRazorpayOrderId(orderId)
+                            .orElseThrow(() -> new RuntimeException("Payment not found"));
+                    return true;
+                }
                 
-                // Update booking status
-                Booking booking = bookingRepository.findById(payment.getBookingId())
-                        .orElseThrow(() -> new RuntimeException("Booking not found"));
-                booking.setPaymentStatus(Booking.PaymentStatus.COMPLETED);
-                booking.setPaymentId(payment.getId());
-                booking.setStatus(Booking.BookingStatus.CONFIRMED);
-                booking.setUpdatedAt(LocalDateTime.now());
-                bookingRepository.save(booking);
+                // Confirm the booking only if it is still pending, e.g. not cancelled meanwhile
+                PartialUpdateRepository.Transition<Booking> confirmed = partialUpdates.transition(
+                        where("id").is(payment.getBookingId()).and("status").is(Booking.BookingStatus.PENDING),
+                        new Update()
+                                .set("paymentStatus", Booking.PaymentStatus.COMPLETED)
+                                .set("paymentId", payment.getId())
+                                .set("status", Booking.BookingStatus.CONFIRMED),
+                        Booking.class);
+                Booking booking;
+                if (confirmed != null) {
+                    booking = confirmed.getAfter();
+                    rollupService.recordStatusChange(booking, confirmed.getBefore().getStatus());
+                } else {
+                    booking = partialUpdates.updateAndGet(where("id").is(payment.getBookingId()),
+                            new Update()
+                                    .set("paymentStatus", Booking.PaymentStatus.COMPLETED)
+                                    .set("paymentId", payment.getId()),
+                            Booking.class);
+                    if (booking == null) {
+                        throw new RuntimeException("Booking not found");
+                    }
+                }
+                rollupService.recordPayment(booking, payment.getAmount() != null ? payment.getAmount() : 0);
             }
             
             return isValid;
@@ -125,14 +160,32 @@ public class PaymentService {
         return paymentRepository.findByUserId(userId);
     }
     
+    public CursorPage<Payment> getPaymentsByUser(String userId, String cursor, Integer limit) {
+        int pageSize = PageCursor.clampLimit(limit);
+        Pageable window = PageCursor.fetchWindow(pageSize, "createdAt");
+        List<Payment> fetched;
+        if (cursor == null) {
+            fetched = paymentRepository.findByUserId(userId, window);
+        } else {
+            PageCursor position = PageCursor.decode(cursor);
+            fetched = paymentRepository.findNextPageByUserId(userId, position.getTimestamp(), position.getIdValue(), window);
+        }
+        return PageCursor.toPage(fetched, pageSize, payment -> new PageCursor(payment.getCreatedAt(), payment.getId()));
+    }
+    
     public Payment refundPayment(String paymentId) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new RuntimeException("Payment not found"));
-        
-        payment.setStatus(Payment.PaymentStatus.REFUNDED);
-        payment.setUpdatedAt(LocalDateTime.now());
-        
-        return paymentRepository.save(payment);
+        Payment payment = partialUpdates.updateAndGet(
+                where("id").is(paymentId).and("status").is(Payment.PaymentStatus.COMPLETED),
+                new Update().set("status", Payment.PaymentStatus.REFUNDED),
+                Payment.class);
+        if (payment == null) {
+            Payment current = paymentRepository.findById(paymentId)
+                    .orElseThrow(() -> new RuntimeException("Payment not found"));
+            throw new BadRequestException("Only completed payments can be refunded, this one is " + current.getStatus());
+        }
+        bookingRepository.findById(payment.getBookingId()).ifPresent(booking ->
+                rollupService.recordRefund(booking, payment.getAmount() != null ? payment.getAmount() : 0));
+        return payment;
     }
 }
 
@@ -0,0 +1,220 @@
+package com.barberease.service;
+
+import com.barberease.exception.PaymentGatewayException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Calls to the Razorpay REST API.
+ *
+ * All calls share one HTTP client and its connection pool, and run on a small
+ * bounded pool of their own, so a slow gateway ties up at most that pool rather
+ * than the request threads: the caller waits at most call-timeout-ms, and a
+ * call that cannot be queued is refused at once. Timeouts, connection errors
+ * and 5xx responses count towards a CircuitBreaker; while it is open, calls fail
+ * immediately with a PaymentGatewayException carrying the time until the next
+ * trial call, which controllers return as 503 with Retry-After.
+ *
+ * Each call is timed in barberease.payment.gateway.calls, tagged with the
+ * operation and its outcome.
+ */
+@Component
+public class RazorpayGateway {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RazorpayGateway.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${razorpay.key-id:}")
+    private String keyId;
+    
+    @Value("${razorpay.key-secret:}")
+    private String keySecret;
+    
+    @Value("${razorpay.base-url:https://api.razorpay.com/v1}")
+    private String baseUrl;
+    
+    @Value("${barberease.payment-gateway.threads:8}")
+    private int threads;
+    
+    @Value("${barberease.payment-gateway.queue-capacity:16}")
+    private int queueCapacity;
+    
+    @Value("${barberease.payment-gateway.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+    
+    @Value("${barberease.payment-gateway.call-timeout-ms:5000}")
+    private long callTimeoutMs;
+    
+    @Value("${barberease.payment-gateway.failure-threshold:5}")
+    private int failureThreshold;
+    
+    @Value("${barberease.payment-gateway.open-ms:30000}")
+    private long openMs;
+    
+    private HttpClient httpClient;
+    private ThreadPoolExecutor executor;
+    private CircuitBreaker circuitBreaker;
+    
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        BlockingQueue<Runnable> queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : new SynchronousQueue<>();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, queue,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-gateway-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        circuitBreaker = new CircuitBreaker(failureThreshold, openMs);
+        Gauge.builder("barberease.payment.gateway.circuit", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 closed, 1 half-open, 2 open")
+                .register(meterRegistry);
+        Gauge.builder("barberease.payment.gateway.queued", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(callTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * False while the keys are missing or still the sample values, in which
+     * case callers fall back to mock orders for development.
+     */
+    public boolean isConfigured() {
+        return keyId != null && !keyId.isEmpty() && !keyId.startsWith("rzp_test_your");
+    }
+    
+    /**
+     * Creates an order and returns its id. The amount is in the currency's
+     * smallest unit, e.g. paise.
+     */
+    public String createOrder(long amount, String currency, String receipt) {
+        JSONObject request = new JSONObject();
+        request.put("amount", amount);
+        request.put("currency", currency);
+        request.put("receipt", receipt);
+        return call("orders.create", () -> post("/orders", request)).getString("id");
+    }
+    
+    <T> T call(String operation, Callable<T> request) {
+        if (!circuitBreaker.tryAcquire()) {
+            record(operation, "circuit_open", 0);
+            throw new PaymentGatewayException("Payment gateway is unavailable, please try again shortly",
+                    retryAfterSeconds(circuitBreaker.retryAfterMillis()));
+        }
+        
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(request);
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.onIgnored();
+            record(operation, "bulkhead_full", 0);
+            throw new PaymentGatewayException("Payment gateway is busy, please try again shortly", 1);
+        }
+        
+        try {
+            T result = future.get(callTimeoutMs, TimeUnit.MILLISECONDS);
+            circuitBreaker.onSuccess();
+            record(operation, "success", System.nanoTime() - start);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            circuitBreaker.onFailure();
+            record(operation, "timeout", System.nanoTime() - start);
+            logger.warn("Payment gateway {} timed out after {} ms", operation, callTimeoutMs);
+            throw new PaymentGatewayException("Payment gateway did not respond in time, please try again shortly",
+                    retryAfterSeconds(circuitBreaker.retryAfterMillis()), e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            circuitBreaker.onIgnored();
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while calling the payment gateway", 0, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof PaymentGatewayException && !((PaymentGatewayException) cause).isUnavailable()) {
+                // The gateway answered and refused the request: it is healthy
+                circuitBreaker.onSuccess();
+                record(operation, "client_error", System.nanoTime() - start);
+                throw (PaymentGatewayException) cause;
+            }
+            circuitBreaker.onFailure();
+            record(operation, "server_error", System.nanoTime() - start);
+            logger.warn("Payment gateway {} failed: {}", operation, cause.getMessage());
+            throw new PaymentGatewayException("Payment gateway error, please try again shortly",
+                    retryAfterSeconds(circuitBreaker.retryAfterMillis()), cause);
+        }
+    }
+    
+    private JSONObject post(String path, JSONObject body) throws IOException, InterruptedException {
+        String credentials = Base64.getEncoder().encodeToString((keyId + ":" + keySecret).getBytes(StandardCharsets.UTF_8));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMillis(callTimeoutMs))
+                .header("Authorization", "Basic " + credentials)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        
+        int status = response.statusCode();
+        if (status >= 500) {
+            throw new IOException("Payment gateway returned " + status);
+        }
+        if (status >= 400) {
+            JSONObject error = response.body().startsWith("{") ? new JSONObject(response.body()).optJSONObject("error") : null;
+            String description = error != null ? error.optString("description", "") : "";
+            throw new PaymentGatewayException("Payment gateway rejected the request: "
+                    + (description.isEmpty() ? "HTTP " + status : description), 0);
+        }
+        return new JSONObject(response.body());
+    }
+    
+    private void record(String operation, String outcome, long nanos) {
+        Timer.builder("barberease.payment.gateway.calls")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private static long retryAfterSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+}
@@ -0,0 +1,98 @@
+package com.barberease.service;
+
+import com.barberease.model.Booking;
+import com.barberease.model.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Sends reminders for upcoming bookings.
+ *
+ * The look-ahead window is scanned in fixed time buckets, each streamed from a
+ * Mongo cursor over the (notificationSent, appointmentDateTime) index, so memory
+ * use does not depend on how many bookings are due. Each booking is claimed with
+ * a conditional update on notificationSent before its reminder is dispatched,
+ * so nodes running the scan at the same time never send the same reminder twice.
+ */
+@Component
+public class ReminderScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+    
+    @Value("${barberease.reminders.lead-hours:24}")
+    private long leadHours;
+    
+    @Value("${barberease.reminders.bucket-minutes:60}")
+    private long bucketMinutes;
+    
+    @Value("${barberease.reminders.cursor-batch-size:200}")
+    private int cursorBatchSize;
+    
+    @Scheduled(fixedDelayString = "${barberease.reminders.interval-ms:300000}",
+               initialDelayString = "${barberease.reminders.initial-delay-ms:60000}")
+    public void sendDueReminders() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime windowEnd = now.plusHours(leadHours);
+        int sent = 0;
+        
+        for (LocalDateTime bucketStart = now; bucketStart.isBefore(windowEnd); bucketStart = bucketStart.plusMinutes(bucketMinutes)) {
+            LocalDateTime bucketEnd = bucketStart.plusMinutes(bucketMinutes);
+            if (bucketEnd.isAfter(windowEnd)) {
+                bucketEnd = windowEnd;
+            }
+            sent += sendReminders(bucketStart, bucketEnd);
+        }
+        
+        if (sent > 0) {
+            logger.info("Dispatched {} booking reminders", sent);
+        }
+    }
+    
+    private int sendReminders(LocalDateTime from, LocalDateTime to) {
+        Query dueBookings = query(where("notificationSent").is(false)
+                .and("appointmentDateTime").gte(from).lt(to)
+                .and("status").in(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED))
+                .with(Sort.by("appointmentDateTime"))
+                .cursorBatchSize(cursorBatchSize);
+        dueBookings.fields().include("userId", "appointmentDateTime");
+        
+        int sent = 0;
+        try (Stream<Booking> bookings = mongoTemplate.stream(dueBookings, Booking.class)) {
+            for (Booking booking : (Iterable<Booking>) bookings::iterator) {
+                if (claim(booking)) {
+                    notificationDispatcher.dispatch(booking, Notification.NotificationType.BOOKING_REMINDER);
+                    sent++;
+                }
+            }
+        }
+        return sent;
+    }
+    
+    private boolean claim(Booking booking) {
+        return mongoTemplate.updateFirst(
+                query(where("id").is(booking.getId()).and("notificationSent").is(false)),
+                new Update().set("notificationSent", true).set("notificationSentAt", LocalDateTime.now()),
+                Booking.class
+        ).getModifiedCount() == 1;
+    }
+}
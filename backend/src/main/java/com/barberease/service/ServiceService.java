@@ -1,57 +1,105 @@
 package com.barberease.service;
 
 import com.barberease.model.Service;
+import com.barberease.repository.CatalogueReadRepository;
+import com.barberease.repository.PartialUpdateRepository;
 import com.barberease.repository.ServiceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.mongodb.core.query.Update;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @org.springframework.stereotype.Service
 public class ServiceService {
     
     @Autowired
     private ServiceRepository serviceRepository;
     
+    @Autowired
+    private CatalogueReadRepository catalogueReadRepository;
+    
+    @Autowired
+    private PartialUpdateRepository partialUpdates;
+    
+    @Autowired
+    private ShopService shopService;
+    
+    @Autowired
+    private CatalogueSearchIndex catalogueSearchIndex;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    @CacheEvict(value = "servicesByShop", key = "#shopId")
     public Service createService(Service service, String shopId) {
         service.setShopId(shopId);
+        service.setVersion(null);
         service.setCreatedAt(LocalDateTime.now());
         service.setUpdatedAt(LocalDateTime.now());
-        return serviceRepository.save(service);
+        Service savedService = serviceRepository.save(service);
+        shopService.refreshServiceCategories(shopId);
+        catalogueSearchIndex.indexService(savedService);
+        return savedService;
     }
     
+    // Cached, so read from the primary: see CatalogueReadRepository
+    @Cacheable(value = "servicesByShop", key = "#shopId")
     public List<Service> getServicesByShop(String shopId) {
         return serviceRepository.findByShopIdAndActive(shopId, true);
     }
     
+    @Cacheable(value = "services", key = "#id")
     public Service getServiceById(String id) {
         return serviceRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Service not found with id: " + id));
     }
     
+    @Caching(
+        put = @CachePut(value = "services", key = "#id"),
+        evict = @CacheEvict(value = "servicesByShop", key = "#result.shopId")
+    )
     public Service updateService(String id, Service serviceDetails) {
-        Service service = getServiceById(id);
-        
-        service.setName(serviceDetails.getName());
-        service.setDescription(serviceDetails.getDescription());
-        service.setDurationMinutes(serviceDetails.getDurationMinutes());
-        service.setPrice(serviceDetails.getPrice());
-        service.setBufferTimeMinutes(serviceDetails.getBufferTimeMinutes());
-        service.setCategory(serviceDetails.getCategory());
-        service.setUpdatedAt(LocalDateTime.now());
-        
-        return serviceRepository.save(service);
+        Service savedService = optimisticRetry.run("service", () -> {
+            Service service = getServiceById(id);
+            optimisticRetry.checkVersion("service", id, serviceDetails.getVersion(), service.getVersion());
+            
+            service.setName(serviceDetails.getName());
+            service.setDescription(serviceDetails.getDescription());
+            service.setDurationMinutes(serviceDetails.getDurationMinutes());
+            service.setPrice(serviceDetails.getPrice());
+            service.setBufferTimeMinutes(serviceDetails.getBufferTimeMinutes());
+            service.setCategory(serviceDetails.getCategory());
+            service.setUpdatedAt(LocalDateTime.now());
+            
+            return serviceRepository.save(service);
+        });
+        shopService.refreshServiceCategories(savedService.getShopId());
+        catalogueSearchIndex.indexService(savedService);
+        return savedService;
     }
     
+    @Caching(evict = {
+        @CacheEvict(value = "services", key = "#id"),
+        @CacheEvict(value = "servicesByShop", allEntries = true)
+    })
     public void deleteService(String id) {
-        Service service = getServiceById(id);
-        service.setActive(false);
-        service.setUpdatedAt(LocalDateTime.now());
-        serviceRepository.save(service);
+        Service service = partialUpdates.updateAndGet(where("id").is(id), new Update().set("active", false), Service.class);
+        if (service == null) {
+            throw new RuntimeException("Service not found with id: " + id);
+        }
+        shopService.refreshServiceCategories(service.getShopId());
+        catalogueSearchIndex.removeService(id);
     }
     
     public List<Service> getServicesByCategory(Service.ServiceCategory category) {
-        return serviceRepository.findByCategoryAndActive(category, true);
+        return catalogueReadRepository.findActiveServicesByCategory(category);
     }
 }
 
@@ -0,0 +1,98 @@
+package com.barberease.service;
+
+import com.barberease.dto.ShopSummary;
+import com.barberease.model.Shop;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Read model behind the public shop directory.
+ *
+ * Holds the active shops as a JSON array of ShopSummary, serialized once and
+ * served as bytes with an ETag. ShopService rebuilds it after every create,
+ * update and soft delete. Writes made on another instance reach this one when
+ * the snapshot passes max-age-seconds and is rebuilt on the next read.
+ */
+@Component
+public class ShopDirectory {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${barberease.shop-directory.max-age-seconds:300}")
+    private long maxAgeSeconds;
+    
+    private volatile Snapshot snapshot;
+    
+    public static class Snapshot {
+        private final byte[] body;
+        private final String etag;
+        private final long builtAtMillis;
+        
+        Snapshot(byte[] body, String etag, long builtAtMillis) {
+            this.body = body;
+            this.etag = etag;
+            this.builtAtMillis = builtAtMillis;
+        }
+        
+        public byte[] getBody() {
+            return body;
+        }
+        
+        public String getEtag() {
+            return etag;
+        }
+    }
+    
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (isStale(current)) {
+            current = refreshIfStale();
+        }
+        return current;
+    }
+    
+    // Readers that queued up behind an expiry rebuild reuse its result instead of rebuilding again
+    private synchronized Snapshot refreshIfStale() {
+        Snapshot current = snapshot;
+        return isStale(current) ? rebuild() : current;
+    }
+    
+    private boolean isStale(Snapshot current) {
+        return current == null || System.currentTimeMillis() - current.builtAtMillis > maxAgeSeconds * 1000;
+    }
+    
+    /**
+     * Reloads the directory from Mongo. Synchronized so that a rebuild started
+     * after a write can never be overtaken by one that started before it.
+     */
+    public synchronized Snapshot rebuild() {
+        Query activeShops = query(where("active").is(true)).with(Sort.by("name"));
+        activeShops.fields().include("name", "address", "phone", "businessHours");
+        List<ShopSummary> summaries = mongoTemplate.find(activeShops, ShopSummary.class,
+                mongoTemplate.getCollectionName(Shop.class));
+        
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(summaries);
+            snapshot = new Snapshot(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"", System.currentTimeMillis());
+            return snapshot;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize shop directory", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.barberease.service;
+
+import com.barberease.model.Shop;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Fills in openIntervals and serviceCategories on shops saved before they were
+ * stored.
+ *
+ * The nearby search filters on both fields, so a shop without them never
+ * matches openNow or category. The categories of all affected shops come from
+ * one aggregation over their active services.
+ */
+@Component
+@Order(3)
+public class ShopSearchFieldsBackfill implements Backfill {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public String name() {
+        return "shop-search-fields";
+    }
+    
+    @Override
+    public long backfill() {
+        Query missing = query(new Criteria().orOperator(
+                where("openIntervals").exists(false), where("serviceCategories").exists(false)));
+        missing.fields().include("businessHours", "openIntervals", "serviceCategories");
+        List<Shop> shops = mongoTemplate.find(missing, Shop.class);
+        if (shops.isEmpty()) {
+            return 0;
+        }
+        
+        Map<String, Set<com.barberease.model.Service.ServiceCategory>> categories =
+                categoriesByShop(shops.stream().map(Shop::getId).collect(Collectors.toList()));
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Shop.class);
+        for (Shop shop : shops) {
+            Update update = new Update();
+            if (shop.getOpenIntervals() == null) {
+                update.set("openIntervals", OpeningHours.weeklyIntervals(shop.getBusinessHours()));
+            }
+            if (shop.getServiceCategories() == null) {
+                update.set("serviceCategories", categories.getOrDefault(shop.getId(),
+                        EnumSet.noneOf(com.barberease.model.Service.ServiceCategory.class)));
+            }
+            bulk.updateOne(query(where("id").is(shop.getId())), update);
+        }
+        return bulk.execute().getModifiedCount();
+    }
+    
+    private Map<String, Set<com.barberease.model.Service.ServiceCategory>> categoriesByShop(List<String> shopIds) {
+        Aggregation aggregation = Aggregation.newAggregation(com.barberease.model.Service.class,
+                Aggregation.match(where("shopId").in(shopIds).and("active").is(true).and("category").ne(null)),
+                Aggregation.group("shopId").addToSet("category").as("categories"));
+        
+        Map<String, Set<com.barberease.model.Service.ServiceCategory>> categories = new HashMap<>();
+        for (Document group : mongoTemplate.aggregate(aggregation, com.barberease.model.Service.class, Document.class)) {
+            Set<com.barberease.model.Service.ServiceCategory> shopCategories =
+                    EnumSet.noneOf(com.barberease.model.Service.ServiceCategory.class);
+            for (String category : group.getList("categories", String.class)) {
+                shopCategories.add(com.barberease.model.Service.ServiceCategory.valueOf(category));
+            }
+            categories.put(group.getString("_id"), shopCategories);
+        }
+        return categories;
+    }
+}
@@ -0,0 +1,199 @@
+package com.barberease.service;
+
+import com.barberease.model.Booking;
+import com.barberease.repository.BookingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of booked intervals per staff member and day.
+ *
+ * Days are loaded lazily from the repository on first use and then kept current
+ * by BookingService as bookings are created, cancelled or change status. A
+ * booking that runs past midnight is held by every day it reaches into. Entries
+ * expire after a short TTL so that bookings written by other nodes show up, and
+ * at most index-max-days days are held, least recently used evicted first.
+ */
+@Component
+public class StaffDayOccupancyIndex {
+    
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    
+    @Autowired
+    private BookingRepository bookingRepository;
+    
+    @Value("${barberease.availability.index-ttl-seconds:60}")
+    private long ttlSeconds;
+    
+    @Value("${barberease.availability.index-max-days:10000}")
+    private int maxDays;
+    
+    @Value("${barberease.bookings.max-length-minutes:480}")
+    private int maxBookingMinutes;
+    
+    private Cache<String, DayOccupancy> days;
+    
+    @PostConstruct
+    public void init() {
+        days = Caffeine.newBuilder()
+                .maximumSize(maxDays)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+    
+    public DayOccupancy getDay(String staffId, LocalDate date) {
+        DayOccupancy day = days.getIfPresent(key(staffId, date));
+        if (day != null) {
+            return day;
+        }
+        
+        // Starting early enough to include bookings from the evening before that run past midnight
+        List<Booking> bookings = bookingRepository.findActiveBookingsByStaffAndDateRange(
+                staffId, date.atStartOfDay().minusMinutes(maxBookingMinutes), date.plusDays(1).atStartOfDay()
+        );
+        return prime(staffId, date, bookings);
+    }
+    
+    /**
+     * Replaces the cached day with the given active bookings, e.g. after a caller
+     * has already loaded them as part of a wider query. Bookings that do not
+     * reach into the day are ignored.
+     */
+    public DayOccupancy prime(String staffId, LocalDate date, List<Booking> bookings) {
+        DayOccupancy loaded = new DayOccupancy();
+        for (Booking booking : bookings) {
+            int startMinute = startMinute(booking, date);
+            int endMinute = endMinute(booking, date);
+            if (endMinute > 0 && startMinute < MINUTES_PER_DAY) {
+                loaded.add(booking.getId(), startMinute, endMinute);
+            }
+        }
+        days.put(key(staffId, date), loaded);
+        return loaded;
+    }
+    
+    public void add(Booking booking) {
+        for (LocalDate date : daysSpanned(booking)) {
+            DayOccupancy day = days.getIfPresent(key(booking.getStaffId(), date));
+            if (day != null) {
+                day.add(booking.getId(), startMinute(booking, date), endMinute(booking, date));
+            }
+        }
+    }
+    
+    public void remove(Booking booking) {
+        for (LocalDate date : daysSpanned(booking)) {
+            DayOccupancy day = days.getIfPresent(key(booking.getStaffId(), date));
+            if (day != null) {
+                day.remove(booking.getId());
+            }
+        }
+    }
+    
+    /**
+     * Applies a booking's current status: active bookings occupy their slot,
+     * cancelled and no-show bookings release it.
+     */
+    public void update(Booking booking) {
+        if (booking.getStatus() == Booking.BookingStatus.CANCELLED
+                || booking.getStatus() == Booking.BookingStatus.NO_SHOW) {
+            remove(booking);
+        } else {
+            add(booking);
+        }
+    }
+    
+    /**
+     * The booking's own day and, if it runs past midnight, the days after it
+     * reaches into.
+     */
+    static List<LocalDate> daysSpanned(Booking booking) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate date = booking.getAppointmentDateTime().toLocalDate();
+        LocalDateTime end = endDateTime(booking);
+        do {
+            dates.add(date);
+            date = date.plusDays(1);
+        } while (date.atStartOfDay().isBefore(end));
+        return dates;
+    }
+    
+    private String key(String staffId, LocalDate date) {
+        return staffId + "|" + date;
+    }
+    
+    // Minutes from the start of date, so on the day after a booking that runs past midnight it starts before 0
+    private static int startMinute(Booking booking, LocalDate date) {
+        return (int) Duration.between(date.atStartOfDay(), booking.getAppointmentDateTime()).toMinutes();
+    }
+    
+    // Minutes from the start of date, so on a booking's own day it may end after 1440
+    private static int endMinute(Booking booking, LocalDate date) {
+        return (int) Duration.between(date.atStartOfDay(), endDateTime(booking)).toMinutes();
+    }
+    
+    private static LocalDateTime endDateTime(Booking booking) {
+        if (booking.getEndDateTime() == null) {
+            return booking.getAppointmentDateTime().plusMinutes(BookingService.LEGACY_BOOKING_MINUTES);
+        }
+        return booking.getEndDateTime();
+    }
+    
+    /**
+     * Booked [start, end) minute intervals for a single staff member on a single day.
+     */
+    public static class DayOccupancy {
+        private final Map<String, int[]> intervalByBooking = new HashMap<>();
+        private final TreeMap<Integer, List<Integer>> endsByStart = new TreeMap<>();
+        // Never shrinks, so it stays an upper bound on the length of every booking held
+        private int longestMinutes;
+        
+        synchronized void add(String bookingId, int startMinute, int endMinute) {
+            if (intervalByBooking.containsKey(bookingId)) {
+                return;
+            }
+            intervalByBooking.put(bookingId, new int[] {startMinute, endMinute});
+            endsByStart.computeIfAbsent(startMinute, minute -> new ArrayList<>()).add(endMinute);
+            longestMinutes = Math.max(longestMinutes, endMinute - startMinute);
+        }
+        
+        synchronized void remove(String bookingId) {
+            int[] interval = intervalByBooking.remove(bookingId);
+            if (interval != null) {
+                endsByStart.computeIfPresent(interval[0], (minute, ends) -> {
+                    ends.remove(Integer.valueOf(interval[1]));
+                    return ends.isEmpty() ? null : ends;
+                });
+            }
+        }
+        
+        /**
+         * Whether [startMinute, endMinute) overlaps any booking. Only bookings
+         * starting less than the longest booking's length before startMinute
+         * can reach into it, so just those are checked.
+         */
+        public synchronized boolean overlaps(int startMinute, int endMinute) {
+            for (List<Integer> ends : endsByStart.subMap(startMinute - longestMinutes, false, endMinute, false).values()) {
+                for (int end : ends) {
+                    if (end > startMinute) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
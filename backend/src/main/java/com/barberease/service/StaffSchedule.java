@@ -0,0 +1,173 @@
+package com.barberease.service;
+
+import com.barberease.model.Shop;
+import com.barberease.model.Staff;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The minutes a staff member can be booked, compiled from their weekly
+ * availability, the shop's business hours, staff leave and shop holidays.
+ *
+ * The regular week is one bitset of minute-of-week bits (minute 0 is Monday
+ * 00:00): the staff member's hours ANDed with the shop's open hours. Dates with
+ * an exception carry their own minute-of-day bitset, which replaces the regular
+ * day. A staff member without availability follows the shop's hours, and a shop
+ * without parseable hours does not restrict its staff; if neither is set, the
+ * staff member works DEFAULT_START_MINUTE to DEFAULT_END_MINUTE every day.
+ *
+ * Instances are immutable and built once per write by StaffScheduleService.
+ */
+public final class StaffSchedule {
+    
+    static final int DEFAULT_START_MINUTE = 9 * 60;
+    static final int DEFAULT_END_MINUTE = 18 * 60;
+    
+    private final BitSet week;
+    private final Map<LocalDate, BitSet> exceptions;
+    private final int slotMinutes;
+    private final int maxAdvanceBookingDays;
+    
+    private StaffSchedule(BitSet week, Map<LocalDate, BitSet> exceptions, int slotMinutes, int maxAdvanceBookingDays) {
+        this.week = week;
+        this.exceptions = exceptions;
+        this.slotMinutes = slotMinutes;
+        this.maxAdvanceBookingDays = maxAdvanceBookingDays;
+    }
+    
+    public static StaffSchedule compile(Staff staff, Shop shop) {
+        BitSet shopWeek = shopWeek(shop);
+        BitSet staffWeek = staffWeek(staff);
+        
+        BitSet week;
+        if (shopWeek == null && staffWeek == null) {
+            week = new BitSet(OpeningHours.MINUTES_PER_WEEK);
+            for (int day = 0; day < 7; day++) {
+                week.set(day * OpeningHours.MINUTES_PER_DAY + DEFAULT_START_MINUTE,
+                        day * OpeningHours.MINUTES_PER_DAY + DEFAULT_END_MINUTE);
+            }
+        } else if (staffWeek == null) {
+            week = shopWeek;
+        } else {
+            week = staffWeek;
+            if (shopWeek != null) {
+                week.and(shopWeek);
+            }
+        }
+        
+        Map<LocalDate, BitSet> exceptions = new HashMap<>();
+        if (staff.getExceptions() != null) {
+            for (Staff.ScheduleException exception : staff.getExceptions()) {
+                if (exception.getDate() == null) {
+                    continue;
+                }
+                BitSet day = new BitSet(OpeningHours.MINUTES_PER_DAY);
+                addSlots(day, 0, exception.getSlots(), OpeningHours.MINUTES_PER_DAY);
+                if (shopWeek != null) {
+                    day.and(slice(shopWeek, exception.getDate()));
+                }
+                exceptions.put(exception.getDate(), day);
+            }
+        }
+        if (shop.getClosedDates() != null) {
+            for (LocalDate closed : shop.getClosedDates()) {
+                exceptions.put(closed, new BitSet(OpeningHours.MINUTES_PER_DAY));
+            }
+        }
+        
+        Shop.ShopSettings settings = shop.getSettings() != null ? shop.getSettings() : new Shop.ShopSettings();
+        return new StaffSchedule(week, exceptions,
+                Math.max(settings.getSlotDurationMinutes(), 5), Math.max(settings.getMaxAdvanceBookingDays(), 0));
+    }
+    
+    /**
+     * The bookable minutes of one day as minute-of-day bits. The returned set
+     * is a copy the caller may modify.
+     */
+    public BitSet workingMinutes(LocalDate date) {
+        BitSet exception = exceptions.get(date);
+        return exception != null ? (BitSet) exception.clone() : slice(week, date);
+    }
+    
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+    
+    public int getMaxAdvanceBookingDays() {
+        return maxAdvanceBookingDays;
+    }
+    
+    private static BitSet shopWeek(Shop shop) {
+        List<Shop.OpenInterval> intervals = shop.getOpenIntervals() != null
+                ? shop.getOpenIntervals()
+                : OpeningHours.weeklyIntervals(shop.getBusinessHours());
+        if (intervals.isEmpty()) {
+            return null;
+        }
+        BitSet week = new BitSet(OpeningHours.MINUTES_PER_WEEK);
+        for (Shop.OpenInterval interval : intervals) {
+            week.set(interval.getStart(), interval.getEnd());
+        }
+        return week;
+    }
+    
+    private static BitSet staffWeek(Staff staff) {
+        if (staff.getAvailability() == null || staff.getAvailability().isEmpty()) {
+            return null;
+        }
+        BitSet week = new BitSet(OpeningHours.MINUTES_PER_WEEK);
+        for (Map.Entry<String, List<Staff.TimeSlot>> day : staff.getAvailability().entrySet()) {
+            DayOfWeek dayOfWeek = parseDayOfWeek(day.getKey());
+            if (dayOfWeek != null) {
+                int dayStart = (dayOfWeek.getValue() - 1) * OpeningHours.MINUTES_PER_DAY;
+                addSlots(week, dayStart, day.getValue(), OpeningHours.MINUTES_PER_WEEK);
+            }
+        }
+        return week;
+    }
+    
+    // Sets the minutes of the available slots, offset by base and wrapping at limit
+    private static void addSlots(BitSet bits, int base, List<Staff.TimeSlot> slots, int limit) {
+        if (slots == null) {
+            return;
+        }
+        for (Staff.TimeSlot slot : slots) {
+            if (!slot.isAvailable() || slot.getStartTime() == null || slot.getEndTime() == null) {
+                continue;
+            }
+            for (int[] range : OpeningHours.parseDay(slot.getStartTime() + "-" + slot.getEndTime())) {
+                int start = base + range[0];
+                int end = base + range[1];
+                bits.set(start, Math.min(end, limit));
+                if (end > limit && limit == OpeningHours.MINUTES_PER_WEEK) {
+                    bits.set(0, end - limit);
+                }
+            }
+        }
+    }
+    
+    private static BitSet slice(BitSet week, LocalDate date) {
+        int dayStart = (date.getDayOfWeek().getValue() - 1) * OpeningHours.MINUTES_PER_DAY;
+        return week.get(dayStart, dayStart + OpeningHours.MINUTES_PER_DAY);
+    }
+    
+    // Accepts "monday", "MONDAY" or "Mon"
+    private static DayOfWeek parseDayOfWeek(String key) {
+        if (key == null || key.length() < 3) {
+            return null;
+        }
+        String prefix = key.trim().substring(0, 3).toUpperCase(Locale.ROOT);
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            if (dayOfWeek.name().startsWith(prefix)) {
+                return dayOfWeek;
+            }
+        }
+        return null;
+    }
+}
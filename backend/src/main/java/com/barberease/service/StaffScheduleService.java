@@ -0,0 +1,28 @@
+package com.barberease.service;
+
+import com.barberease.model.Shop;
+import com.barberease.model.Staff;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Compiled staff schedules, cached by staff id.
+ *
+ * StaffService and ShopService recompile the affected schedules whenever
+ * availability, leave, business hours or holidays change; other instances pick
+ * the change up when their cache entry expires.
+ */
+@Service
+public class StaffScheduleService {
+    
+    @Cacheable(value = "staffSchedules", key = "#staff.id")
+    public StaffSchedule getSchedule(Staff staff, Shop shop) {
+        return StaffSchedule.compile(staff, shop);
+    }
+    
+    @CachePut(value = "staffSchedules", key = "#staff.id")
+    public StaffSchedule recompile(Staff staff, Shop shop) {
+        return StaffSchedule.compile(staff, shop);
+    }
+}
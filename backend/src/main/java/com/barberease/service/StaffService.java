@@ -1,62 +1,121 @@
 package com.barberease.service;
 
 import com.barberease.model.Staff;
+import com.barberease.repository.PartialUpdateRepository;
 import com.barberease.repository.StaffRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @Service
 public class StaffService {
     
     @Autowired
     private StaffRepository staffRepository;
     
+    @Autowired
+    private PartialUpdateRepository partialUpdates;
+    
+    @Autowired
+    private ShopService shopService;
+    
+    @Autowired
+    private StaffScheduleService staffScheduleService;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    @CacheEvict(value = "staffByShop", key = "#shopId")
     public Staff createStaff(Staff staff, String shopId) {
         staff.setShopId(shopId);
+        staff.setVersion(null);
         staff.setCreatedAt(LocalDateTime.now());
         staff.setUpdatedAt(LocalDateTime.now());
         return staffRepository.save(staff);
     }
     
+    // Cached, so read from the primary: see CatalogueReadRepository
+    @Cacheable(value = "staffByShop", key = "#shopId")
     public List<Staff> getStaffByShop(String shopId) {
         return staffRepository.findByShopIdAndActive(shopId, true);
     }
     
+    @Cacheable(value = "staff", key = "#id")
     public Staff getStaffById(String id) {
         return staffRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Staff not found with id: " + id));
     }
     
+    @Caching(
+        put = @CachePut(value = "staff", key = "#id"),
+        evict = @CacheEvict(value = "staffByShop", key = "#result.shopId")
+    )
     public Staff updateStaff(String id, Staff staffDetails) {
-        Staff staff = getStaffById(id);
-        
-        staff.setName(staffDetails.getName());
-        staff.setPhone(staffDetails.getPhone());
-        staff.setEmail(staffDetails.getEmail());
-        staff.setSpecialization(staffDetails.getSpecialization());
-        staff.setProfileImage(staffDetails.getProfileImage());
-        staff.setServiceIds(staffDetails.getServiceIds());
-        staff.setUpdatedAt(LocalDateTime.now());
-        
-        return staffRepository.save(staff);
+        return optimisticRetry.run("staff", () -> {
+            Staff staff = getStaffById(id);
+            optimisticRetry.checkVersion("staff", id, staffDetails.getVersion(), staff.getVersion());
+            
+            staff.setName(staffDetails.getName());
+            staff.setPhone(staffDetails.getPhone());
+            staff.setEmail(staffDetails.getEmail());
+            staff.setSpecialization(staffDetails.getSpecialization());
+            staff.setProfileImage(staffDetails.getProfileImage());
+            staff.setServiceIds(staffDetails.getServiceIds());
+            staff.setUpdatedAt(LocalDateTime.now());
+            
+            return staffRepository.save(staff);
+        });
     }
     
+    @Caching(
+        put = @CachePut(value = "staff", key = "#id"),
+        evict = @CacheEvict(value = "staffByShop", key = "#result.shopId")
+    )
     public Staff updateAvailability(String id, Map<String, List<Staff.TimeSlot>> availability) {
-        Staff staff = getStaffById(id);
-        staff.setAvailability(availability);
-        staff.setUpdatedAt(LocalDateTime.now());
-        return staffRepository.save(staff);
+        Staff savedStaff = optimisticRetry.run("staff", () -> {
+            Staff staff = getStaffById(id);
+            staff.setAvailability(availability);
+            staff.setUpdatedAt(LocalDateTime.now());
+            return staffRepository.save(staff);
+        });
+        staffScheduleService.recompile(savedStaff, shopService.getShopById(savedStaff.getShopId()));
+        return savedStaff;
+    }
+    
+    @Caching(
+        put = @CachePut(value = "staff", key = "#id"),
+        evict = @CacheEvict(value = "staffByShop", key = "#result.shopId")
+    )
+    public Staff updateExceptions(String id, List<Staff.ScheduleException> exceptions) {
+        Staff savedStaff = optimisticRetry.run("staff", () -> {
+            Staff staff = getStaffById(id);
+            staff.setExceptions(exceptions);
+            staff.setUpdatedAt(LocalDateTime.now());
+            return staffRepository.save(staff);
+        });
+        staffScheduleService.recompile(savedStaff, shopService.getShopById(savedStaff.getShopId()));
+        return savedStaff;
     }
     
+    @Caching(evict = {
+        @CacheEvict(value = "staff", key = "#id"),
+        @CacheEvict(value = "staffByShop", allEntries = true)
+    })
     public void deleteStaff(String id) {
-        Staff staff = getStaffById(id);
-        staff.setActive(false);
-        staff.setUpdatedAt(LocalDateTime.now());
-        staffRepository.save(staff);
+        Staff staff = partialUpdates.updateAndGet(where("id").is(id), new Update().set("active", false), Staff.class);
+        if (staff == null) {
+            throw new RuntimeException("Staff not found with id: " + id);
+        }
     }
 }
 
@@ -0,0 +1,42 @@
+package com.barberease.service;
+
+import com.barberease.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops a user's cached principal whenever the user document is saved or deleted,
+ * so role and credential changes take effect on the next request rather than
+ * after the users cache TTL.
+ */
+@Component
+public class UserCacheInvalidator extends AbstractMongoEventListener<User> {
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Override
+    public void onAfterSave(AfterSaveEvent<User> event) {
+        evict(event.getSource().getId());
+    }
+    
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<User> event) {
+        Object id = event.getSource().get("_id");
+        if (id != null) {
+            evict(id.toString());
+        }
+    }
+    
+    private void evict(String userId) {
+        Cache users = cacheManager.getCache("users");
+        if (users != null && userId != null) {
+            users.evict(userId);
+        }
+    }
+}
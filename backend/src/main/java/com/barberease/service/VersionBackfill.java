@@ -0,0 +1,53 @@
+package com.barberease.service;
+
+import com.barberease.model.Booking;
+import com.barberease.model.Payment;
+import com.barberease.model.Shop;
+import com.barberease.model.Staff;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Gives version 0 to documents stored before their entity had a @Version field.
+ *
+ * Spring Data treats an entity with a null version as new, so saving a loaded
+ * legacy document would try to insert it again. Runs first, as the other
+ * backfills may load and save these documents.
+ */
+@Component
+@Order(1)
+public class VersionBackfill implements Backfill {
+    
+    static final List<Class<?>> VERSIONED = List.of(
+            Shop.class, Staff.class, com.barberease.model.Service.class, Booking.class, Payment.class);
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public String name() {
+        return "versions";
+    }
+    
+    @Override
+    public long backfill() {
+        long updated = 0;
+        for (Class<?> type : VERSIONED) {
+            MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(type);
+            String versionField = entity.getRequiredVersionProperty().getFieldName();
+            // Raw collection name, so MongoTemplate does not add a version $inc of its own
+            updated += mongoTemplate.updateMulti(query(where(versionField).exists(false)),
+                    new Update().set(versionField, 0L), entity.getCollection()).getModifiedCount();
+        }
+        return updated;
+    }
+}
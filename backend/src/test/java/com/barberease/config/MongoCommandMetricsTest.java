@@ -0,0 +1,76 @@
+package com.barberease.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoCommandMetricsTest {
+    
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+    
+    private SimpleMeterRegistry meterRegistry;
+    private MongoCommandMetrics commandMetrics;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        commandMetrics = new MongoCommandMetrics();
+        ReflectionTestUtils.setField(commandMetrics, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(commandMetrics, "slowCommandMs", 100L);
+        ReflectionTestUtils.setField(commandMetrics, "slowCommandBuffer", 2);
+        commandMetrics.registerPoolMeters();
+    }
+    
+    @Test
+    void testShapeOf_ReplacesLiterals() {
+        // Arrange
+        BsonDocument find = BsonDocument.parse("{ find: 'bookings', filter: { shop_id: 'shop1', "
+                + "appointmentDateTime: { $gte: 1, $lt: 2 }, status: { $nin: ['CANCELLED', 'NO_SHOW'] } }, "
+                + "sort: { appointmentDateTime: 1 } }");
+        
+        // Act
+        String shape = MongoCommandMetrics.shapeOf("find", find);
+        
+        // Assert
+        assertEquals("{\"shop_id\": \"?\", \"appointmentDateTime\": {\"$gte\": \"?\", \"$lt\": \"?\"}, "
+                + "\"status\": {\"$nin\": \"?\"}} sort {\"appointmentDateTime\": 1}", shape);
+        assertEquals("bookings", MongoCommandMetrics.collectionOf("find", find));
+    }
+    
+    @Test
+    void testCommandSucceeded_RecordsLatencyDocumentsAndSlowCommands() {
+        // Arrange
+        BsonDocument find = BsonDocument.parse("{ find: 'bookings', filter: { shop_id: 'shop1' } }");
+        BsonDocument response = BsonDocument.parse("{ ok: 1, cursor: { id: 0, firstBatch: [ {}, {}, {} ] } }");
+        
+        // Act
+        for (int i = 0; i < 3; i++) {
+            commandMetrics.commandStarted(new CommandStartedEvent(null, 1, i, CONNECTION, "barber_ease", "find", find));
+            commandMetrics.commandSucceeded(new CommandSucceededEvent(null, 1, i, CONNECTION, "barber_ease", "find",
+                    response, TimeUnit.MILLISECONDS.toNanos(150 + i)));
+        }
+        
+        // Assert
+        assertEquals(3, meterRegistry.get("mongodb.command")
+                .tags("collection", "bookings", "command", "find", "outcome", "success").timer().count());
+        assertEquals(9.0, meterRegistry.get("mongodb.command.documents").summary().totalAmount());
+        List<MongoCommandMetrics.SlowCommand> slow = commandMetrics.slowCommands();
+        assertEquals(2, slow.size());
+        assertEquals(152, slow.get(0).getDurationMs());
+        assertEquals("{\"shop_id\": \"?\"}", slow.get(0).getShape());
+    }
+}
@@ -0,0 +1,155 @@
+package com.barberease.config;
+
+import com.barberease.model.Booking;
+import com.barberease.model.SlotClaim;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MongoIndexReconcilerTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    private MongoIndexReconciler reconciler;
+    
+    @BeforeEach
+    void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        mappingContext.setInitialEntitySet(Set.of(Booking.class, SlotClaim.class));
+        mappingContext.initialize();
+        lenient().when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        
+        reconciler = new MongoIndexReconciler();
+        ReflectionTestUtils.setField(reconciler, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(reconciler, "eventPublisher", eventPublisher);
+    }
+    
+    @Test
+    void testFieldNames_UseMappedFieldNames() {
+        // Act
+        List<String> fields = reconciler.fieldNames(MongoIndexReconciler.HOT_QUERIES.get(0));
+        
+        // Assert
+        assertEquals(List.of("staff_id", "appointmentDateTime"), fields);
+    }
+    
+    @Test
+    void testIsServed_CamelCaseIndexDoesNotServeMappedQuery() {
+        // Arrange
+        List<IndexInfo> camelCase = List.of(IndexInfo.indexInfoOf(
+                new Document("name", "staffId_1_appointmentDateTime_1")
+                        .append("key", new Document("staffId", 1).append("appointmentDateTime", 1))));
+        List<IndexInfo> mapped = List.of(IndexInfo.indexInfoOf(
+                new Document("name", "staff_page")
+                        .append("key", new Document("staff_id", 1).append("appointmentDateTime", -1).append("_id", -1))));
+        
+        // Act & Assert
+        assertFalse(MongoIndexReconciler.isServed(List.of("staff_id", "appointmentDateTime"), camelCase));
+        assertTrue(MongoIndexReconciler.isServed(List.of("staff_id", "appointmentDateTime"), mapped));
+    }
+    
+    @Test
+    void testIsNeeded_KeepsConstraintsAndFlagsStrayIndexes() {
+        // Arrange
+        IndexInfo unique = IndexInfo.indexInfoOf(new Document("name", "email_1")
+                .append("key", new Document("email", 1)).append("unique", true));
+        IndexInfo stray = IndexInfo.indexInfoOf(new Document("name", "shopId_1")
+                .append("key", new Document("shopId", 1)));
+        List<List<String>> required = List.of(List.of("shop_id", "appointmentDateTime"));
+        
+        // Act & Assert
+        assertTrue(MongoIndexReconciler.isNeeded(unique, required));
+        assertFalse(MongoIndexReconciler.isNeeded(stray, required));
+    }
+    
+    @Test
+    void testReconcile_SkipsEntityIndexesThatExistUnderAnotherName() {
+        // Arrange
+        IndexOperations indexOps = mock(IndexOperations.class);
+        com.mongodb.client.MongoDatabase database = mock(com.mongodb.client.MongoDatabase.class);
+        when(mongoTemplate.getCollectionName(any())).thenReturn("slot_claims");
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOps);
+        when(indexOps.getIndexInfo()).thenReturn(List.of(IndexInfo.indexInfoOf(
+                new Document("name", "staff_id_1_slotStart_1").append("unique", true)
+                        .append("key", new Document("staff_id", 1).append("slotStart", 1)))));
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.runCommand(any(Document.class))).thenReturn(new Document("queryPlanner",
+                new Document("winningPlan", new Document("stage", "IXSCAN"))));
+        
+        // Act
+        reconciler.reconcile();
+        
+        // Assert
+        verify(indexOps, never()).ensureIndex(argThat((IndexDefinition definition) ->
+                "staff_slot_unique".equals(definition.getIndexOptions().get("name"))));
+    }
+    
+    @Test
+    void testUsesCollectionScan_DetectsNestedCollscan() {
+        // Arrange
+        com.mongodb.client.MongoDatabase database = mock(com.mongodb.client.MongoDatabase.class);
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.runCommand(any(Document.class))).thenReturn(new Document("queryPlanner",
+                new Document("winningPlan", new Document("stage", "FETCH")
+                        .append("inputStage", new Document("stage", "COLLSCAN")))));
+        
+        // Act & Assert
+        assertTrue(reconciler.usesCollectionScan("bookings", new Document("staff_id", "probe")));
+    }
+    
+    @Test
+    void testReconcile_CreatesMissingIndexes() {
+        // Arrange
+        IndexOperations indexOps = mock(IndexOperations.class);
+        com.mongodb.client.MongoDatabase database = mock(com.mongodb.client.MongoDatabase.class);
+        when(mongoTemplate.getCollectionName(any())).thenReturn("bookings");
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOps);
+        when(indexOps.getIndexInfo()).thenReturn(List.of());
+        when(mongoTemplate.getDb()).thenReturn(database);
+        when(database.runCommand(any(Document.class))).thenReturn(new Document("queryPlanner",
+                new Document("winningPlan", new Document("stage", "IXSCAN"))));
+        
+        // Act
+        reconciler.reconcile();
+        
+        // Assert
+        verify(indexOps, atLeast(MongoIndexReconciler.HOT_QUERIES.size())).ensureIndex(any());
+        verify(indexOps).ensureIndex(argThat((IndexDefinition definition) ->
+                "staff_slot_unique".equals(definition.getIndexOptions().get("name"))
+                        && Boolean.TRUE.equals(definition.getIndexOptions().get("unique"))));
+        verify(indexOps).ensureIndex(argThat((IndexDefinition definition) ->
+                definition.getIndexKeys().containsKey("expireAt")
+                        && Long.valueOf(0).equals(definition.getIndexOptions().get("expireAfterSeconds"))));
+        assertEquals(Status.UP, reconciler.health().getStatus());
+        verify(eventPublisher).publishEvent(any(AvailabilityChangeEvent.class));
+    }
+}
@@ -0,0 +1,76 @@
+package com.barberease.repository;
+
+import com.barberease.model.Service;
+import com.barberease.model.Shop;
+import com.mongodb.ReadPreference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogueReadRepositoryTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private CatalogueReadRepository catalogueReadRepository;
+    
+    @Test
+    void testFindActiveServicesByCategory_ReadsFromSecondaryWithinStalenessBudget() {
+        // Arrange
+        ReflectionTestUtils.setField(catalogueReadRepository, "secondaryReads", true);
+        ReflectionTestUtils.setField(catalogueReadRepository, "maxStalenessSeconds", 120L);
+        catalogueReadRepository.init();
+        
+        // Act
+        catalogueReadRepository.findActiveServicesByCategory(Service.ServiceCategory.HAIRCUT);
+        
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Service.class));
+        assertEquals(ReadPreference.secondaryPreferred(120, TimeUnit.SECONDS), query.getValue().getReadPreference());
+        assertEquals(Service.ServiceCategory.HAIRCUT, query.getValue().getQueryObject().get("category"));
+        assertEquals(true, query.getValue().getQueryObject().get("active"));
+    }
+    
+    @Test
+    void testInit_RaisesStalenessToDriverMinimum() {
+        // Arrange
+        ReflectionTestUtils.setField(catalogueReadRepository, "secondaryReads", true);
+        ReflectionTestUtils.setField(catalogueReadRepository, "maxStalenessSeconds", 10L);
+        
+        // Act
+        catalogueReadRepository.init();
+        
+        // Assert
+        assertEquals(ReadPreference.secondaryPreferred(90, TimeUnit.SECONDS), catalogueReadRepository.getReadPreference());
+    }
+    
+    @Test
+    void testFindActiveShops_UsesPrimaryWhenSecondaryReadsDisabled() {
+        // Arrange
+        ReflectionTestUtils.setField(catalogueReadRepository, "secondaryReads", false);
+        catalogueReadRepository.init();
+        
+        // Act
+        catalogueReadRepository.findActiveShops();
+        
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(Shop.class));
+        assertEquals(ReadPreference.primary(), query.getValue().getReadPreference());
+    }
+}
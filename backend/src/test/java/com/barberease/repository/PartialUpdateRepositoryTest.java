@@ -0,0 +1,106 @@
+package com.barberease.repository;
+
+import com.barberease.model.Booking;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+@ExtendWith(MockitoExtension.class)
+class PartialUpdateRepositoryTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private PartialUpdateRepository partialUpdates;
+    
+    private Booking booking;
+    
+    @BeforeEach
+    void setUp() {
+        booking = new Booking("shop1", "staff1", "user1", "service1", LocalDateTime.of(2024, 6, 4, 10, 0));
+        booking.setId("65f000000000000000000001");
+        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setTotalAmount(300.0);
+        booking.setVersion(4L);
+    }
+    
+    @Test
+    void testTransition_OneFindAndModifyReturningBothStates() {
+        // Arrange
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Booking.class)))
+                .thenReturn(booking);
+        
+        // Act
+        PartialUpdateRepository.Transition<Booking> transition = partialUpdates.transition(
+                where("id").is(booking.getId()).and("status").nin(List.of(Booking.BookingStatus.COMPLETED)),
+                new Update().set("status", Booking.BookingStatus.CANCELLED).set("cancellationReason", "Sick"),
+                Booking.class);
+        
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), options.capture(), eq(Booking.class));
+        assertTrue(query.getValue().getQueryObject().containsKey("status"));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(Booking.BookingStatus.CANCELLED, set.get("status"));
+        assertTrue(set.containsKey("updatedAt"));
+        assertFalse(options.getValue().isReturnNew());
+        
+        assertEquals(Booking.BookingStatus.CONFIRMED, transition.getBefore().getStatus());
+        assertEquals(Booking.BookingStatus.CANCELLED, transition.getAfter().getStatus());
+        assertEquals("Sick", transition.getAfter().getCancellationReason());
+        assertEquals("staff1", transition.getAfter().getStaffId());
+        assertEquals(300.0, transition.getAfter().getTotalAmount());
+        assertEquals(4L, transition.getBefore().getVersion());
+        assertEquals(5L, transition.getAfter().getVersion());
+    }
+    
+    @Test
+    void testTransition_NoMatchReturnsNull() {
+        // Act
+        PartialUpdateRepository.Transition<Booking> transition = partialUpdates.transition(
+                where("id").is("missing"), new Update().set("status", Booking.BookingStatus.CANCELLED), Booking.class);
+        
+        // Assert
+        assertNull(transition);
+        verify(mongoTemplate, never()).getConverter();
+    }
+    
+    @Test
+    void testTransition_RejectsOperatorsOtherThanSet() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> partialUpdates.transition(
+                where("id").is("booking1"), new Update().inc("totalAmount", 10), Booking.class));
+    }
+}
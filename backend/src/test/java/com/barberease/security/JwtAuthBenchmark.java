@@ -0,0 +1,89 @@
+package com.barberease.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token.
+ *
+ * legacyTwoPass mirrors the previous filter: the key and parser were rebuilt and
+ * the token verified twice (validateToken, then getUserIdFromToken). singlePass
+ * verifies once with the prebuilt parser; cachedSinglePass is the steady state
+ * where the token has already been verified.
+ *
+ * Run with: mvn test-compile exec:exec
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthBenchmark {
+    
+    private static final String SECRET = "barberease-secret-key-2024-very-long-and-secure-key";
+    
+    // Far more distinct tokens than the verified-token cache holds, so that
+    // singlePass always misses and pays for signature verification
+    private static final int DISTINCT_TOKENS = 100_000;
+    
+    private JwtTokenProvider uncachedProvider;
+    private JwtTokenProvider cachedProvider;
+    private String token;
+    private String[] distinctTokens;
+    private int next;
+    
+    @Setup
+    public void setUp() {
+        uncachedProvider = JwtTokenProviderTest.newProvider(SECRET, 3600000);
+        cachedProvider = JwtTokenProviderTest.newProvider(SECRET, 3600000);
+        token = cachedProvider.generateTokenFromUserId("user123");
+        cachedProvider.parseClaims(token);
+        
+        distinctTokens = new String[DISTINCT_TOKENS];
+        for (int i = 0; i < DISTINCT_TOKENS; i++) {
+            distinctTokens[i] = uncachedProvider.generateTokenFromUserId("user" + i);
+        }
+    }
+    
+    @Benchmark
+    public String legacyTwoPass() {
+        String token = distinctTokens[next];
+        next = (next + 1) % DISTINCT_TOKENS;
+        Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token);
+        Claims claims = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        return claims.getSubject();
+    }
+    
+    @Benchmark
+    public String singlePass() {
+        String distinctToken = distinctTokens[next];
+        next = (next + 1) % DISTINCT_TOKENS;
+        return uncachedProvider.parseClaims(distinctToken).getSubject();
+    }
+    
+    @Benchmark
+    public String cachedSinglePass() {
+        return cachedProvider.parseClaims(token).getSubject();
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtAuthBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
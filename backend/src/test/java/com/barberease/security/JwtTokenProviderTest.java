@@ -0,0 +1,76 @@
+package com.barberease.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenProviderTest {
+    
+    private JwtTokenProvider tokenProvider;
+    
+    @BeforeEach
+    void setUp() {
+        tokenProvider = newProvider("barberease-secret-key-2024-very-long-and-secure-key", 3600000);
+    }
+    
+    @Test
+    void testParseClaims_ValidToken() {
+        // Arrange
+        String token = tokenProvider.generateTokenFromUserId("user123");
+        
+        // Act
+        Claims claims = tokenProvider.parseClaims(token);
+        
+        // Assert
+        assertNotNull(claims);
+        assertEquals("user123", claims.getSubject());
+        assertTrue(tokenProvider.validateToken(token));
+        assertEquals("user123", tokenProvider.getUserIdFromToken(token));
+    }
+    
+    @Test
+    void testParseClaims_RepeatedTokenServedFromCache() {
+        // Arrange
+        String token = tokenProvider.generateTokenFromUserId("user123");
+        
+        // Act
+        Claims first = tokenProvider.parseClaims(token);
+        Claims second = tokenProvider.parseClaims(token);
+        
+        // Assert
+        assertSame(first, second);
+    }
+    
+    @Test
+    void testParseClaims_RejectsTokenSignedWithOtherKey() {
+        // Arrange
+        JwtTokenProvider otherProvider = newProvider("another-secret-key-that-is-also-long-enough-2024", 3600000);
+        String foreignToken = otherProvider.generateTokenFromUserId("user123");
+        
+        // Act & Assert
+        assertNull(tokenProvider.parseClaims(foreignToken));
+        assertFalse(tokenProvider.validateToken(foreignToken));
+    }
+    
+    @Test
+    void testParseClaims_RejectsExpiredToken() {
+        // Arrange
+        JwtTokenProvider shortLivedProvider = newProvider("barberease-secret-key-2024-very-long-and-secure-key", -1000);
+        String expiredToken = shortLivedProvider.generateTokenFromUserId("user123");
+        
+        // Act & Assert
+        assertNull(tokenProvider.parseClaims(expiredToken));
+    }
+    
+    static JwtTokenProvider newProvider(String secret, int expirationMs) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret", secret);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", expirationMs);
+        ReflectionTestUtils.setField(provider, "verifiedCacheSize", 1000L);
+        provider.init();
+        return provider;
+    }
+}
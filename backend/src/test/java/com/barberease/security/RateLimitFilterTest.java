@@ -0,0 +1,109 @@
+package com.barberease.security;
+
+import com.barberease.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+    
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitFilter rateLimitFilter;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimitFilter = new RateLimitFilter();
+        ReflectionTestUtils.setField(rateLimitFilter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(rateLimitFilter, "objectMapper", new ObjectMapper().findAndRegisterModules());
+        ReflectionTestUtils.setField(rateLimitFilter, "enabled", true);
+        ReflectionTestUtils.setField(rateLimitFilter, "maxClients", 1000L);
+        rateLimitFilter.nanoClock = clock::get;
+        rateLimitFilter.init();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+    
+    @Test
+    void testLogin_ThrottledAfterFiveAttemptsPerMinute() throws Exception {
+        // Act
+        for (int i = 0; i < 5; i++) {
+            assertEquals(200, send("POST", "/api/auth/login", "10.0.0.1").getStatus());
+        }
+        MockHttpServletResponse throttled = send("POST", "/api/auth/login", "10.0.0.1");
+        
+        // Assert
+        assertEquals(429, throttled.getStatus());
+        assertEquals("12", throttled.getHeader("Retry-After"));
+        assertTrue(throttled.getContentAsString().contains("\"status\":429"));
+        assertEquals(1.0, meterRegistry.get("barberease.ratelimit.throttled").tag("route", "login").counter().count());
+        assertEquals(200, send("POST", "/api/auth/login", "10.0.0.2").getStatus());
+    }
+    
+    @Test
+    void testLogin_RefillsOneTokenPerInterval() throws Exception {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            send("POST", "/api/auth/login", "10.0.0.1");
+        }
+        
+        // Act
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(12));
+        MockHttpServletResponse refilled = send("POST", "/api/auth/login", "10.0.0.1");
+        MockHttpServletResponse empty = send("POST", "/api/auth/login", "10.0.0.1");
+        
+        // Assert
+        assertEquals(200, refilled.getStatus());
+        assertEquals(429, empty.getStatus());
+    }
+    
+    @Test
+    void testAuthenticatedRequests_LimitedPerUserNotPerAddress() throws Exception {
+        // Arrange
+        User user = new User();
+        user.setId("user123");
+        user.setEmail("user@example.com");
+        user.setRole(User.UserRole.CUSTOMER);
+        UserPrincipal principal = UserPrincipal.create(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(200, send("GET", "/api/bookings", "10.0.0." + (i % 200)).getStatus());
+        }
+        MockHttpServletResponse throttled = send("GET", "/api/bookings", "10.0.0.250");
+        SecurityContextHolder.clearContext();
+        MockHttpServletResponse anonymous = send("GET", "/api/public/shops", "10.0.0.250");
+        
+        // Assert
+        assertEquals(429, throttled.getStatus());
+        assertEquals(200, anonymous.getStatus());
+        assertEquals(1.0, meterRegistry.get("barberease.ratelimit.throttled").tag("route", "authenticated").counter().count());
+    }
+    
+    private MockHttpServletResponse send(String method, String path, String remoteAddr) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddr);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
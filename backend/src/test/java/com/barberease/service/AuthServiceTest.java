@@ -16,6 +16,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
@@ -129,5 +130,23 @@ class AuthServiceTest {
         verify(userRepository, times(1)).existsByEmail("john@example.com");
         verify(userRepository, never()).save(any(User.class));
     }
+    
+    @Test
+    void testGetCurrentUserId_UsesResolvedPrincipal() {
+        // Arrange
+        UserPrincipal userPrincipal = UserPrincipal.create(testUser);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities()));
+        
+        try {
+            // Act
+            String userId = authService.getCurrentUserId();
+            
+            // Assert
+            assertEquals("user123", userId);
+            verifyNoInteractions(userRepository);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
 }
-
@@ -0,0 +1,53 @@
+package com.barberease.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BackfillRunnerTest {
+    
+    @Mock
+    private Backfill versions;
+    
+    @Mock
+    private Backfill endTimes;
+    
+    @Mock
+    private Backfill searchFields;
+    
+    @Test
+    void testAfterSingletonsInstantiated_RunsEnabledBackfillsInOrder() {
+        // Arrange
+        when(versions.name()).thenReturn("versions");
+        when(endTimes.name()).thenReturn("booking-end-time");
+        when(searchFields.name()).thenReturn("shop-search-fields");
+        when(versions.backfill()).thenThrow(new IllegalStateException("boom"));
+        BackfillRunner runner = runner(new MockEnvironment()
+                .withProperty("barberease.migrations.booking-end-time", "false"));
+        
+        // Act
+        runner.afterSingletonsInstantiated();
+        
+        // Assert
+        InOrder inOrder = inOrder(versions, searchFields);
+        inOrder.verify(versions).backfill();
+        inOrder.verify(searchFields).backfill();
+        verify(endTimes, never()).backfill();
+    }
+    
+    private BackfillRunner runner(MockEnvironment environment) {
+        BackfillRunner runner = new BackfillRunner();
+        ReflectionTestUtils.setField(runner, "backfills", List.of(versions, endTimes, searchFields));
+        ReflectionTestUtils.setField(runner, "environment", environment);
+        return runner;
+    }
+}
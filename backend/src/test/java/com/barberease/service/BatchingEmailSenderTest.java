@@ -0,0 +1,206 @@
+package com.barberease.service;
+
+import com.barberease.model.Notification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchingEmailSenderTest {
+    
+    @Mock
+    private NotificationService notificationService;
+    
+    private FakeSmtpServer smtpServer;
+    private SimpleMeterRegistry meterRegistry;
+    private BatchingEmailSender emailSender;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        smtpServer = new FakeSmtpServer();
+        meterRegistry = new SimpleMeterRegistry();
+        
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+        
+        emailSender = new BatchingEmailSender();
+        ReflectionTestUtils.setField(emailSender, "notificationService", notificationService);
+        ReflectionTestUtils.setField(emailSender, "mailSender", mailSender);
+        ReflectionTestUtils.setField(emailSender, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(emailSender, "fromEmail", "noreply@barberease.com");
+        ReflectionTestUtils.setField(emailSender, "batchSize", 10);
+        ReflectionTestUtils.setField(emailSender, "batchWindowMs", 300L);
+        ReflectionTestUtils.setField(emailSender, "queueCapacity", 100);
+        emailSender.start();
+    }
+    
+    @AfterEach
+    void tearDown() throws Exception {
+        emailSender.stop();
+        smtpServer.close();
+    }
+    
+    @Test
+    void testSubmit_BatchSharesOneConnection() {
+        // Act
+        for (int i = 0; i < 8; i++) {
+            emailSender.submit(notification("customer" + i + "@example.com"));
+        }
+        
+        // Assert
+        verify(notificationService, timeout(5000).times(8)).recordSent(any(Notification.class));
+        assertEquals(1, smtpServer.connections.get());
+        assertEquals(8, smtpServer.messages.get());
+        assertEquals(8.0, meterRegistry.get("notification.email.batch.size").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("notification.email.batch.send").timer().count());
+    }
+    
+    @Test
+    void testSubmit_SplitsBatchesAtBatchSize() {
+        // Act
+        for (int i = 0; i < 25; i++) {
+            emailSender.submit(notification("customer" + i + "@example.com"));
+        }
+        
+        // Assert
+        verify(notificationService, timeout(5000).times(25)).recordSent(any(Notification.class));
+        assertEquals(3, smtpServer.connections.get());
+        assertEquals(10.0, meterRegistry.get("notification.email.batch.size").summary().max());
+    }
+    
+    @Test
+    void testSubmit_RejectedRecipientFailsOnlyItsNotification() {
+        // Arrange
+        Notification rejected = notification("bad@example.com");
+        
+        // Act
+        emailSender.submit(notification("first@example.com"));
+        emailSender.submit(rejected);
+        emailSender.submit(notification("last@example.com"));
+        
+        // Assert
+        verify(notificationService, timeout(5000).times(2)).recordSent(any(Notification.class));
+        verify(notificationService, timeout(5000)).recordFailure(eq(rejected), anyString());
+        assertEquals(1, smtpServer.connections.get());
+        assertEquals(2, smtpServer.messages.get());
+    }
+    
+    @Test
+    void testSubmit_WithoutMailSenderRecordsFailures() {
+        // Arrange
+        ReflectionTestUtils.setField(emailSender, "mailSender", null);
+        
+        // Act
+        emailSender.submit(notification("first@example.com"));
+        emailSender.submit(notification("last@example.com"));
+        
+        // Assert
+        verify(notificationService, timeout(5000).times(2)).recordFailure(any(Notification.class), eq("Mail sender not configured"));
+        verify(notificationService, never()).recordSent(any(Notification.class));
+        assertEquals(0, smtpServer.connections.get());
+        assertEquals(2.0, meterRegistry.get("notification.email.messages").tag("outcome", "failed").counter().count());
+        assertEquals(0.0, meterRegistry.get("notification.email.messages").tag("outcome", "sent").counter().count());
+    }
+    
+    private Notification notification(String email) {
+        Notification notification = new Notification();
+        notification.setRecipientEmail(email);
+        notification.setSubject("Booking Confirmation - BarberEase");
+        notification.setBody("Your booking has been confirmed!");
+        return notification;
+    }
+    
+    /**
+     * Minimal SMTP server that accepts every message except those addressed to
+     * bad@example.com, and counts connections and delivered messages.
+     */
+    private static class FakeSmtpServer {
+        private final ServerSocket serverSocket;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+        
+        FakeSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::acceptLoop, "fake-smtp");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+        
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+        
+        void close() throws IOException {
+            serverSocket.close();
+        }
+        
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread handler = new Thread(() -> handle(socket), "fake-smtp-session");
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+        
+        private void handle(Socket socket) {
+            try (socket;
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+                reply(out, "220 localhost ESMTP");
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("RCPT") && command.contains("BAD@")) {
+                        reply(out, "550 No such user");
+                    } else if (command.startsWith("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // Discard message content
+                        }
+                        messages.incrementAndGet();
+                        reply(out, "250 OK");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else {
+                        reply(out, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away
+            }
+        }
+        
+        private void reply(PrintWriter out, String response) {
+            out.print(response + "\r\n");
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.barberease.service;
+
+import com.barberease.model.Booking;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingEndTimeBackfillTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private BookingEndTimeBackfill backfill;
+    
+    @Test
+    void testBackfill_AddsServiceLengthToBookingsWithoutEnd() {
+        // Arrange
+        com.barberease.model.Service haircut = new com.barberease.model.Service("Haircut", "", 45, 300.0, "shop1");
+        haircut.setBufferTimeMinutes(10);
+        when(mongoTemplate.findDistinct(any(Query.class), eq("serviceId"), eq(Booking.class), eq(String.class)))
+                .thenReturn(List.of("service1", "deleted"));
+        when(mongoTemplate.findById("service1", com.barberease.model.Service.class)).thenReturn(haircut);
+        when(mongoTemplate.updateMulti(any(Query.class), any(AggregationUpdate.class), eq(Booking.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null), UpdateResult.acknowledged(1, 1L, null),
+                        UpdateResult.acknowledged(0, 0L, null));
+        
+        // Act
+        long updated = backfill.backfill();
+        
+        // Assert
+        assertEquals(4, updated);
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<AggregationUpdate> updates = ArgumentCaptor.forClass(AggregationUpdate.class);
+        verify(mongoTemplate, times(3)).updateMulti(queries.capture(), updates.capture(), eq(Booking.class));
+        assertEquals("service1", queries.getAllValues().get(0).getQueryObject().get("serviceId"));
+        assertEquals(55 * 60_000L, addedMillis(updates.getAllValues().get(0)));
+        assertEquals(BookingService.LEGACY_BOOKING_MINUTES * 60_000L, addedMillis(updates.getAllValues().get(1)));
+    }
+    
+    private static Object addedMillis(AggregationUpdate update) {
+        Document set = (Document) update.toPipeline(Aggregation.DEFAULT_CONTEXT).get(0).get("$set");
+        List<?> operands = (List<?>) ((Document) set.get("endDateTime")).get("$add");
+        return operands.get(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.barberease.service;
+
+import com.barberease.model.Booking;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingExportServiceTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    private BookingExportService exportService;
+    private ObjectMapper objectMapper;
+    
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new BookingExportService();
+        ReflectionTestUtils.setField(exportService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(exportService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(exportService, "cursorBatchSize", 500);
+        ReflectionTestUtils.setField(exportService, "flushRows", 2);
+    }
+    
+    @Test
+    void testExport_NdjsonWritesOneBookingPerLine() throws Exception {
+        // Arrange
+        when(mongoTemplate.stream(any(Query.class), eq(Booking.class)))
+                .thenReturn(IntStream.range(0, 5).mapToObj(this::booking));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        // Act
+        exportService.exportShopBookings("shop1", null, null, BookingExportService.ExportFormat.NDJSON, out);
+        
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("booking0", first.get("id").asText());
+        assertEquals("2024-01-15T09:00:00", first.get("appointmentDateTime").asText());
+    }
+    
+    @Test
+    void testExport_CsvEscapesFields() throws Exception {
+        // Arrange
+        Booking booking = booking(0);
+        booking.setNotes("=HYPERLINK(\"x\"), please");
+        when(mongoTemplate.stream(any(Query.class), eq(Booking.class))).thenReturn(Stream.of(booking));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        
+        // Act
+        exportService.exportShopBookings("shop1", null, null, BookingExportService.ExportFormat.CSV, out);
+        
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("id,shopId,staffId"));
+        assertTrue(lines[1].startsWith("booking0,shop1,staff1,user1,service1,2024-01-15T09:00,PENDING,"));
+        assertTrue(lines[1].contains(",\"'=HYPERLINK(\"\"x\"\"), please\","));
+    }
+    
+    @Test
+    void testEscapeCsv_PrefixesFormulaTriggers() {
+        // Arrange / Act / Assert
+        assertEquals("'=1+1", BookingExportService.escapeCsv("=1+1"));
+        assertEquals("'+1", BookingExportService.escapeCsv("+1"));
+        assertEquals("'-2+3", BookingExportService.escapeCsv("-2+3"));
+        assertEquals("'@SUM(A1)", BookingExportService.escapeCsv("@SUM(A1)"));
+        assertEquals("'\tcmd", BookingExportService.escapeCsv("\tcmd"));
+        assertEquals("\"'\r=1\"", BookingExportService.escapeCsv("\r=1"));
+        assertEquals("a-b", BookingExportService.escapeCsv("a-b"));
+        assertEquals("", BookingExportService.escapeCsv(""));
+    }
+    
+    private Booking booking(int i) {
+        Booking booking = new Booking();
+        booking.setId("booking" + i);
+        booking.setShopId("shop1");
+        booking.setStaffId("staff1");
+        booking.setUserId("user1");
+        booking.setServiceId("service1");
+        booking.setAppointmentDateTime(LocalDateTime.of(2024, 1, 15, 9, 0).plusHours(i));
+        return booking;
+    }
+}
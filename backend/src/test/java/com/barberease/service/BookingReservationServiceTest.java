@@ -0,0 +1,221 @@
+package com.barberease.service;
+
+import com.barberease.dto.BookingRequest;
+import com.barberease.model.Booking;
+import com.barberease.model.SlotClaim;
+import com.barberease.repository.BookingRepository;
+import com.barberease.repository.ServiceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingReservationServiceTest {
+    
+    private static final int THREADS = 32;
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BookingRepository bookingRepository;
+    
+    @Mock
+    private ServiceRepository serviceRepository;
+    
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+    
+    @Mock
+    private BookingRollupService rollupService;
+    
+    // Stands in for the unique (staff_id, slotStart) index shared by all nodes
+    private Map<String, String> claimedSlots;
+    
+    private LocalDateTime appointmentTime;
+    
+    @BeforeEach
+    void setUp() {
+        claimedSlots = new ConcurrentHashMap<>();
+        appointmentTime = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+    
+    @Test
+    void testClaim_ConcurrentClaimsAcrossNodes_OnlyOneSucceeds() throws Exception {
+        // Arrange
+        stubClaimStore();
+        BookingReservationService nodeA = newReservationService();
+        BookingReservationService nodeB = newReservationService();
+        AtomicInteger successes = new AtomicInteger();
+        
+        // Act
+        runConcurrently(400, i -> {
+            BookingReservationService node = i % 2 == 0 ? nodeA : nodeB;
+            LocalDateTime start = appointmentTime.plusMinutes((i % 3) * 5);
+            try {
+                node.claim("staff1", "booking" + i, start, start.plusMinutes(35));
+                successes.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertEquals("Time slot is already booked", e.getMessage());
+            }
+        });
+        
+        // Assert: overlapping claims can all lose, but never more than one wins,
+        // and losers leave no claims behind
+        assertTrue(successes.get() <= 1);
+        assertEquals(successes.get(), claimedSlots.values().stream().distinct().count());
+    }
+    
+    @Test
+    void testCreateBooking_HighConcurrency_NoDoubleBookings() throws Exception {
+        // Arrange
+        stubClaimStore();
+        com.barberease.model.Service service = new com.barberease.model.Service("Haircut", "", 30, 300.0, "shop1");
+        service.setId("service1");
+        List<Booking> savedBookings = new CopyOnWriteArrayList<>();
+        
+        when(serviceRepository.findById("service1")).thenReturn(Optional.of(service));
+        // Each node's conflict check misses bookings still being written by the other node
+        when(bookingRepository.findOverlappingActiveBookings(anyString(), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+        when(bookingRepository.save(any(Booking.class))).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            savedBookings.add(booking);
+            return booking;
+        });
+        
+        BookingService nodeA = newBookingService();
+        BookingService nodeB = newBookingService();
+        int staffCount = 4;
+        int slotsPerStaff = 5;
+        AtomicInteger successes = new AtomicInteger();
+        
+        // Act: every (staff, slot) pair is requested 20 times, alternating between nodes
+        runConcurrently(staffCount * slotsPerStaff * 20, i -> {
+            BookingService node = i % 2 == 0 ? nodeA : nodeB;
+            int pair = i % (staffCount * slotsPerStaff);
+            BookingRequest request = new BookingRequest(
+                    "shop1",
+                    "staff" + (pair % staffCount),
+                    "service1",
+                    appointmentTime.plusHours(pair / staffCount)
+            );
+            try {
+                node.createBooking(request, "user" + i);
+                successes.incrementAndGet();
+            } catch (RuntimeException e) {
+                assertEquals("Time slot is already booked", e.getMessage());
+            }
+        });
+        
+        // Assert
+        assertEquals(staffCount * slotsPerStaff, successes.get());
+        assertEquals(staffCount * slotsPerStaff, savedBookings.size());
+        
+        Map<String, List<Booking>> byStaff = savedBookings.stream()
+                .collect(Collectors.groupingBy(Booking::getStaffId));
+        for (List<Booking> bookings : byStaff.values()) {
+            for (int i = 0; i < bookings.size(); i++) {
+                for (int j = i + 1; j < bookings.size(); j++) {
+                    LocalDateTime a = bookings.get(i).getAppointmentDateTime();
+                    LocalDateTime b = bookings.get(j).getAppointmentDateTime();
+                    assertTrue(a.plusMinutes(35).compareTo(b) <= 0 || b.plusMinutes(35).compareTo(a) <= 0,
+                            "Overlapping bookings at " + a + " and " + b);
+                }
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void stubClaimStore() {
+        doAnswer(invocation -> {
+            Collection<SlotClaim> claims = invocation.getArgument(0);
+            for (SlotClaim claim : claims) {
+                String key = claim.getStaffId() + "|" + claim.getSlotStart();
+                if (claimedSlots.putIfAbsent(key, claim.getBookingId()) != null) {
+                    throw new DuplicateKeyException("E11000 duplicate key error: " + key);
+                }
+            }
+            return new ArrayList<>(claims);
+        }).when(mongoTemplate).insert(anyCollection(), eq(SlotClaim.class));
+        
+        lenient().doAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            String bookingId = query.getQueryObject().getString("bookingId");
+            claimedSlots.values().removeIf(bookingId::equals);
+            return null;
+        }).when(mongoTemplate).remove(any(Query.class), eq(SlotClaim.class));
+    }
+    
+    private BookingReservationService newReservationService() {
+        BookingReservationService reservationService = new BookingReservationService();
+        ReflectionTestUtils.setField(reservationService, "mongoTemplate", mongoTemplate);
+        return reservationService;
+    }
+    
+    private BookingService newBookingService() {
+        BookingService bookingService = new BookingService();
+        ReflectionTestUtils.setField(bookingService, "bookingRepository", bookingRepository);
+        ServiceService serviceService = new ServiceService();
+        ReflectionTestUtils.setField(serviceService, "serviceRepository", serviceRepository);
+        ReflectionTestUtils.setField(bookingService, "serviceService", serviceService);
+        ReflectionTestUtils.setField(bookingService, "notificationDispatcher", notificationDispatcher);
+        StaffDayOccupancyIndex occupancyIndex = new StaffDayOccupancyIndex();
+        ReflectionTestUtils.setField(occupancyIndex, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(occupancyIndex, "maxDays", 100);
+        ReflectionTestUtils.setField(occupancyIndex, "maxBookingMinutes", 480);
+        occupancyIndex.init();
+        ReflectionTestUtils.setField(bookingService, "occupancyIndex", occupancyIndex);
+        ReflectionTestUtils.setField(bookingService, "reservationService", newReservationService());
+        ReflectionTestUtils.setField(bookingService, "rollupService", rollupService);
+        ReflectionTestUtils.setField(bookingService, "maxBookingMinutes", 480);
+        return bookingService;
+    }
+    
+    private void runConcurrently(int tasks, IntConsumer task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            int index = i;
+            futures.add(executor.submit(() -> {
+                start.await();
+                task.accept(index);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+    }
+}
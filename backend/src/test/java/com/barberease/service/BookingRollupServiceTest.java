@@ -0,0 +1,148 @@
+package com.barberease.service;
+
+import com.barberease.exception.BadRequestException;
+import com.barberease.model.Booking;
+import com.barberease.model.DailyRollup;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingRollupServiceTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BulkOperations bulkOperations;
+    
+    @InjectMocks
+    private BookingRollupService rollupService;
+    
+    private Booking booking;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rollupService, "maxRangeDays", 366L);
+        ReflectionTestUtils.setField(rollupService, "cursorBatchSize", 500);
+        booking = booking("booking1", LocalDateTime.of(2024, 6, 4, 10, 0), Booking.BookingStatus.CONFIRMED, 300.0);
+    }
+    
+    @Test
+    void testRecordStatusChange_MovesCountAndAmountForEachScope() {
+        // Arrange
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyRollup.class)).thenReturn(bulkOperations);
+        booking.setStatus(Booking.BookingStatus.CANCELLED);
+        
+        // Act
+        rollupService.recordStatusChange(booking, Booking.BookingStatus.CONFIRMED);
+        
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(3)).upsert(query.capture(), update.capture());
+        verify(bulkOperations).execute();
+        assertEquals("shop:shop1:2024-06-04", query.getAllValues().get(0).getQueryObject().get("id"));
+        assertEquals("staff:staff1:2024-06-04", query.getAllValues().get(1).getQueryObject().get("id"));
+        assertEquals("service:service1:2024-06-04", query.getAllValues().get(2).getQueryObject().get("id"));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(-1, inc.get("bookingsByStatus.CONFIRMED"));
+        assertEquals(1, inc.get("bookingsByStatus.CANCELLED"));
+        assertEquals(-300.0, inc.get("amountByStatus.CONFIRMED"));
+        assertEquals(300.0, inc.get("amountByStatus.CANCELLED"));
+    }
+    
+    @Test
+    void testRecordRefund_TakesPaymentOutOfCompletedCounters() {
+        // Arrange
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, DailyRollup.class)).thenReturn(bulkOperations);
+        
+        // Act
+        rollupService.recordRefund(booking, 300.0);
+        
+        // Assert
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations, times(3)).upsert(any(Query.class), update.capture());
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(-1, inc.get("completedPayments"));
+        assertEquals(-300.0, inc.get("paidAmount"));
+    }
+    
+    @Test
+    void testRecordStatusChange_UnchangedStatusIsIgnored() {
+        // Act
+        rollupService.recordStatusChange(booking, Booking.BookingStatus.CONFIRMED);
+        
+        // Assert
+        verifyNoInteractions(mongoTemplate);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRebuildShop_WritesOneDayAtATime() {
+        // Arrange
+        LocalDateTime dayOne = LocalDateTime.of(2024, 6, 4, 10, 0);
+        Booking second = booking("booking2", dayOne.plusHours(2), Booking.BookingStatus.CANCELLED, 200.0);
+        Booking third = booking("booking3", dayOne.plusDays(1), Booking.BookingStatus.COMPLETED, 500.0);
+        when(mongoTemplate.stream(any(Query.class), eq(Booking.class))).thenReturn(Stream.of(booking, second, third));
+        List<Collection<DailyRollup>> batches = new ArrayList<>();
+        when(mongoTemplate.insert(any(Collection.class), eq(DailyRollup.class))).thenAnswer(invocation -> {
+            batches.add(new ArrayList<>((Collection<DailyRollup>) invocation.getArgument(0)));
+            return invocation.getArgument(0);
+        });
+        
+        // Act
+        int written = rollupService.rebuildShop("shop1");
+        
+        // Assert
+        assertEquals(6, written);
+        assertEquals(2, batches.size());
+        DailyRollup shopDayOne = batches.get(0).iterator().next();
+        assertEquals(LocalDate.of(2024, 6, 4), shopDayOne.getDay());
+        assertEquals(2, shopDayOne.getBookings());
+        assertEquals(1L, shopDayOne.getBookingsByStatus().get("CANCELLED"));
+        assertEquals(300.0, shopDayOne.getAmountByStatus().get("CONFIRMED"));
+        verify(mongoTemplate).remove(any(Query.class), eq(DailyRollup.class));
+    }
+    
+    @Test
+    void testGetRollups_RejectsReversedRange() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> rollupService.getRollups("shop1", DailyRollup.Scope.SHOP, null,
+                LocalDate.of(2024, 6, 4), LocalDate.of(2024, 6, 1)));
+    }
+    
+    private static Booking booking(String id, LocalDateTime appointment, Booking.BookingStatus status, double amount) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setShopId("shop1");
+        booking.setStaffId("staff1");
+        booking.setServiceId("service1");
+        booking.setAppointmentDateTime(appointment);
+        booking.setStatus(status);
+        booking.setTotalAmount(amount);
+        return booking;
+    }
+}
@@ -0,0 +1,117 @@
+package com.barberease.service;
+
+import com.barberease.dto.SearchHit;
+import com.barberease.model.Service;
+import com.barberease.model.Shop;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogueSearchIndexTest {
+    
+    private CatalogueSearchIndex searchIndex;
+    
+    @BeforeEach
+    void setUp() {
+        searchIndex = new CatalogueSearchIndex();
+        
+        Shop shop = new Shop("Sharp Cuts Salon", "1 Main Street", "9876543210", "owner123");
+        shop.setId("shop1");
+        searchIndex.indexShop(shop);
+        Shop otherShop = new Shop("Little Barbers", "2 Main Street", "9876543211", "owner456");
+        otherShop.setId("shop2");
+        searchIndex.indexShop(otherShop);
+        
+        searchIndex.indexService(service("service1", "shop1", "Classic Haircut", Service.ServiceCategory.HAIRCUT));
+        searchIndex.indexService(service("service2", "shop1", "Hot Towel Shave", Service.ServiceCategory.SHAVE));
+        searchIndex.indexService(service("service3", "shop2", "Kids Cut", Service.ServiceCategory.HAIRCUT));
+    }
+    
+    @Test
+    void testSearch_PrefixMatchesNamesAndCategories() {
+        // Act
+        List<SearchHit> hits = searchIndex.search("hair", 10);
+        
+        // Assert
+        assertEquals(2, hits.size());
+        assertEquals("Classic Haircut", hits.get(0).getName());
+        assertEquals("Kids Cut", hits.get(1).getName());
+        assertEquals("shop2", hits.get(1).getShopId());
+    }
+    
+    @Test
+    void testSearch_AllTermsMustMatch() {
+        // Act
+        List<SearchHit> hits = searchIndex.search("Sharp sal", 10);
+        
+        // Assert
+        assertEquals(1, hits.size());
+        assertEquals(SearchHit.Type.SHOP, hits.get(0).getType());
+        assertTrue(searchIndex.search("sharp shave", 10).isEmpty());
+    }
+    
+    @Test
+    void testUpdatesAndRemovals_AreReflectedImmediately() {
+        // Act
+        searchIndex.indexService(service("service2", "shop1", "Beard Sculpt", Service.ServiceCategory.BEARD_TRIM));
+        searchIndex.removeShop("shop1");
+        
+        // Assert
+        assertTrue(searchIndex.search("towel", 10).isEmpty());
+        assertTrue(searchIndex.search("beard", 10).isEmpty());
+        assertTrue(searchIndex.search("sharp", 10).isEmpty());
+        assertEquals(1, searchIndex.search("cut", 10).size());
+    }
+    
+    @Test
+    void testIndexService_SkipsServicesOfUnindexedShops() {
+        // Act
+        searchIndex.indexService(service("service4", "shop3", "Deluxe Fade", Service.ServiceCategory.HAIRCUT));
+        
+        // Assert
+        assertTrue(searchIndex.search("fade", 10).isEmpty());
+    }
+    
+    @Test
+    void testRebuild_KeepsLocalWritesMadeWhileRebuilding() {
+        // Arrange
+        Shop shop = new Shop("Sharp Cuts Salon", "1 Main Street", "9876543210", "owner123");
+        shop.setId("shop1");
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        ReflectionTestUtils.setField(searchIndex, "mongoTemplate", mongoTemplate);
+        when(mongoTemplate.stream(any(Query.class), eq(Shop.class))).thenAnswer(invocation -> {
+            // Saved after the rebuild's reads started, so Mongo returns it to neither of them
+            searchIndex.indexService(service("service4", "shop1", "Deluxe Fade", Service.ServiceCategory.HAIRCUT));
+            return Stream.of(shop);
+        });
+        when(mongoTemplate.stream(any(Query.class), eq(Service.class))).thenReturn(Stream.empty());
+        
+        // Act
+        searchIndex.rebuild();
+        
+        // Assert
+        assertEquals(1, searchIndex.search("fade", 10).size());
+        assertTrue(searchIndex.search("towel", 10).isEmpty());
+        assertTrue(searchIndex.search("little", 10).isEmpty());
+    }
+    
+    private static Service service(String id, String shopId, String name, Service.ServiceCategory category) {
+        Service service = new Service();
+        service.setId(id);
+        service.setShopId(shopId);
+        service.setName(name);
+        service.setCategory(category);
+        return service;
+    }
+}
@@ -0,0 +1,56 @@
+package com.barberease.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+    
+    private final AtomicLong now = new AtomicLong(1_000);
+    
+    @Test
+    void testOpensAfterConsecutiveFailuresAndRefusesCalls() {
+        // Arrange
+        CircuitBreaker breaker = new CircuitBreaker(3, 30_000, now::get);
+        
+        // Act
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+        breaker.onFailure();
+        boolean beforeThreshold = breaker.tryAcquire();
+        breaker.onFailure();
+        
+        // Assert
+        assertTrue(beforeThreshold);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        now.addAndGet(10_000);
+        assertEquals(20_000, breaker.retryAfterMillis());
+    }
+    
+    @Test
+    void testLetsOneTrialCallThroughAfterTheOpenPeriod() {
+        // Arrange
+        CircuitBreaker breaker = new CircuitBreaker(1, 30_000, now::get);
+        breaker.onFailure();
+        now.addAndGet(30_000);
+        
+        // Act & Assert
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        
+        now.addAndGet(30_000);
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+    }
+}
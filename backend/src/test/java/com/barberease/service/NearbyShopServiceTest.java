@@ -0,0 +1,102 @@
+package com.barberease.service;
+
+import com.barberease.dto.CursorPage;
+import com.barberease.dto.NearbyShop;
+import com.barberease.exception.BadRequestException;
+import com.barberease.model.Service;
+import com.barberease.model.Shop;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NearbyShopServiceTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private NearbyShopService nearbyShopService;
+    
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(nearbyShopService, "maxRadiusKm", 50.0);
+    }
+    
+    @Test
+    void testNearbyAggregation_SingleGeoNearWithFilters() {
+        // Arrange
+        LocalDateTime tuesdayTenAm = LocalDateTime.of(2024, 6, 4, 10, 0);
+        
+        // Act
+        List<Document> pipeline = nearbyShopService.nearbyAggregation(
+                19.07, 72.88, 3, Service.ServiceCategory.HAIRCUT, tuesdayTenAm, 40, 21)
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+        
+        // Assert
+        Document geoNear = pipeline.get(0).get("$geoNear", Document.class);
+        assertNotNull(geoNear);
+        assertEquals("distanceKm", geoNear.get("distanceField"));
+        assertEquals(true, geoNear.get("spherical"));
+        assertEquals(3000.0, ((Number) geoNear.get("maxDistance")).doubleValue(), 0.001);
+        assertEquals(0.001, ((Number) geoNear.get("distanceMultiplier")).doubleValue(), 0.000001);
+        Document filter = geoNear.get("query", Document.class);
+        assertEquals(true, filter.get("active"));
+        assertEquals(Service.ServiceCategory.HAIRCUT, filter.get("serviceCategories"));
+        Document open = filter.get("openIntervals", Document.class).get("$elemMatch", Document.class);
+        assertEquals(new Document("$lte", 1440 + 600), open.get("start"));
+        assertEquals(new Document("$gt", 1440 + 600), open.get("end"));
+        assertEquals(40L, ((Number) pipeline.get(1).get("$skip")).longValue());
+        assertEquals(21L, ((Number) pipeline.get(2).get("$limit")).longValue());
+    }
+    
+    @Test
+    void testFindNearby_ReturnsCursorToNextPage() {
+        // Arrange
+        List<NearbyShop> fetched = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fetched.add(new NearbyShop());
+        }
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(NearbyShop.class)))
+                .thenReturn(new AggregationResults<>(fetched, new Document()));
+        
+        // Act
+        CursorPage<NearbyShop> first = nearbyShopService.findNearby(19.07, 72.88, 5, null, false, null, 2);
+        nearbyShopService.findNearby(19.07, 72.88, 5, null, false, first.getNextCursor(), 2);
+        
+        // Assert
+        assertEquals(2, first.getItems().size());
+        assertTrue(first.isHasMore());
+        ArgumentCaptor<TypedAggregation<Shop>> aggregation = ArgumentCaptor.forClass(TypedAggregation.class);
+        verify(mongoTemplate, times(2)).aggregate(aggregation.capture(), eq(NearbyShop.class));
+        List<Document> secondPage = aggregation.getAllValues().get(1).toPipeline(Aggregation.DEFAULT_CONTEXT);
+        assertEquals(2L, ((Number) secondPage.get(1).get("$skip")).longValue());
+    }
+    
+    @Test
+    void testFindNearby_RejectsRadiusAboveMaximum() {
+        // Act & Assert
+        assertThrows(BadRequestException.class,
+                () -> nearbyShopService.findNearby(19.07, 72.88, 500, null, false, null, null));
+        verifyNoInteractions(mongoTemplate);
+    }
+}
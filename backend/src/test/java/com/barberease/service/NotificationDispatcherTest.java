@@ -0,0 +1,144 @@
+package com.barberease.service;
+
+import com.barberease.model.Booking;
+import com.barberease.model.Notification;
+import com.barberease.model.User;
+import com.barberease.repository.NotificationRepository;
+import com.barberease.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+    
+    @Mock
+    private NotificationRepository notificationRepository;
+    
+    @Mock
+    private UserRepository userRepository;
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BatchingEmailSender emailSender;
+    
+    // Stands in for the notifications collection
+    private Map<String, Notification> stored;
+    private List<String> sent;
+    private NotificationDispatcher dispatcher;
+    private Booking booking;
+    
+    @BeforeEach
+    void setUp() {
+        stored = new ConcurrentHashMap<>();
+        sent = new CopyOnWriteArrayList<>();
+        AtomicInteger ids = new AtomicInteger();
+        
+        User user = new User();
+        user.setEmail("customer@example.com");
+        when(userRepository.findById("user1")).thenReturn(Optional.of(user));
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            if (notification.getId() == null) {
+                notification.setId("n" + ids.incrementAndGet());
+            }
+            stored.put(notification.getId(), notification);
+            return notification;
+        });
+        // Claims the first due PENDING notification, as the sweep's findAndModify does
+        lenient().when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Notification.class))).thenAnswer(invocation -> {
+            LocalDateTime now = LocalDateTime.now();
+            synchronized (stored) {
+                for (Notification notification : stored.values()) {
+                    if (notification.getStatus() == Notification.NotificationStatus.PENDING
+                            && !notification.getNextAttemptAt().isAfter(now)) {
+                        notification.setNextAttemptAt(now.plusMinutes(5));
+                        return notification;
+                    }
+                }
+            }
+            return null;
+        });
+        doAnswer(invocation -> {
+            sent.add(invocation.<Notification>getArgument(0).getId());
+            return null;
+        }).when(emailSender).submit(any(Notification.class));
+        
+        NotificationService notificationService = new NotificationService();
+        ReflectionTestUtils.setField(notificationService, "notificationRepository", notificationRepository);
+        ReflectionTestUtils.setField(notificationService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(notificationService, "mongoTemplate", mongoTemplate);
+        
+        dispatcher = new NotificationDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "notificationService", notificationService);
+        ReflectionTestUtils.setField(dispatcher, "emailSender", emailSender);
+        ReflectionTestUtils.setField(dispatcher, "workers", 2);
+        ReflectionTestUtils.setField(dispatcher, "queueCapacity", 10);
+        ReflectionTestUtils.setField(dispatcher, "retryBatchSize", 100);
+        dispatcher.start();
+        
+        booking = new Booking("shop1", "staff1", "user1", "service1", LocalDateTime.now().plusDays(1));
+        booking.setId("booking1");
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.stop();
+    }
+    
+    @Test
+    void testDispatch_SweepRunningAlongsideDoesNotSendTwice() throws InterruptedException {
+        // Act
+        dispatcher.dispatch(booking, Notification.NotificationType.BOOKING_CONFIRMED);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (sent.isEmpty() && System.currentTimeMillis() < deadline) {
+            dispatcher.retryDueNotifications();
+        }
+        for (int i = 0; i < 10; i++) {
+            dispatcher.retryDueNotifications();
+        }
+        
+        // Assert
+        assertEquals(1, stored.size());
+        assertEquals(List.of(stored.keySet().iterator().next()), sent);
+    }
+    
+    @Test
+    void testDispatch_QueueFullLeavesNotificationDueForOneSweep() throws InterruptedException {
+        // Arrange
+        dispatcher.stop();
+        
+        // Act
+        dispatcher.dispatch(booking, Notification.NotificationType.BOOKING_CONFIRMED);
+        dispatcher.retryDueNotifications();
+        dispatcher.retryDueNotifications();
+        
+        // Assert
+        assertEquals(1, stored.size());
+        assertEquals(1, sent.size());
+    }
+}
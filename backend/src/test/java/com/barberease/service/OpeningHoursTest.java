@@ -0,0 +1,43 @@
+package com.barberease.service;
+
+import com.barberease.model.Shop;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningHoursTest {
+    
+    @Test
+    void testParseDay_SupportedFormats() {
+        // Act & Assert
+        assertArrayEquals(new int[] {540, 1080}, OpeningHours.parseDay("09:00-18:00").get(0));
+        assertArrayEquals(new int[] {540, 1110}, OpeningHours.parseDay("9:00 AM - 6:30 PM").get(0));
+        assertEquals(2, OpeningHours.parseDay("10:00-13:00, 14:00-19:00").size());
+        assertTrue(OpeningHours.parseDay("Closed").isEmpty());
+        assertTrue(OpeningHours.parseDay("").isEmpty());
+    }
+    
+    @Test
+    void testWeeklyIntervals_OvernightSundayWrapsToMonday() {
+        // Arrange
+        Shop.BusinessHours hours = new Shop.BusinessHours();
+        hours.setMonday("09:00-18:00");
+        hours.setSunday("20:00-02:00");
+        
+        // Act
+        List<Shop.OpenInterval> intervals = OpeningHours.weeklyIntervals(hours);
+        
+        // Assert
+        assertEquals(3, intervals.size());
+        assertEquals(540, intervals.get(0).getStart());
+        assertEquals(1080, intervals.get(0).getEnd());
+        assertEquals(6 * 1440 + 1200, intervals.get(1).getStart());
+        assertEquals(OpeningHours.MINUTES_PER_WEEK, intervals.get(1).getEnd());
+        assertEquals(0, intervals.get(2).getStart());
+        assertEquals(120, intervals.get(2).getEnd());
+        assertEquals(1440 + 630, OpeningHours.minuteOfWeek(LocalDateTime.of(2024, 6, 4, 10, 30)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.barberease.service;
+
+import com.barberease.exception.ConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticRetryTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private OptimisticRetry optimisticRetry;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        optimisticRetry = new OptimisticRetry();
+        ReflectionTestUtils.setField(optimisticRetry, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(optimisticRetry, "maxAttempts", 3);
+        ReflectionTestUtils.setField(optimisticRetry, "backoffMs", 1L);
+    }
+    
+    @Test
+    void testRun_RetriesUntilTheWriteSucceeds() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        
+        // Act
+        String result = optimisticRetry.run("staff", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale");
+            }
+            return "saved";
+        });
+        
+        // Assert
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, conflicts("staff", "retried"));
+    }
+    
+    @Test
+    void testRun_GivesUpAfterMaxAttempts() {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        
+        // Act & Assert
+        assertThrows(OptimisticLockingFailureException.class, () -> optimisticRetry.run("shop", () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale");
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, conflicts("shop", "retried"));
+        assertEquals(1.0, conflicts("shop", "exhausted"));
+    }
+    
+    @Test
+    void testCheckVersion_RejectsStaleClientVersion() {
+        // Act & Assert
+        optimisticRetry.checkVersion("service", "s1", null, 4L);
+        optimisticRetry.checkVersion("service", "s1", 4L, 4L);
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> optimisticRetry.checkVersion("service", "s1", 3L, 4L));
+        assertEquals(4L, exception.getCurrentVersion());
+        assertEquals(1.0, conflicts("service", "rejected"));
+    }
+    
+    private double conflicts(String entity, String outcome) {
+        return meterRegistry.counter("barberease.version.conflicts", "entity", entity, "outcome", outcome).count();
+    }
+}
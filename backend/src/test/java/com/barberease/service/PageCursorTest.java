@@ -0,0 +1,61 @@
+package com.barberease.service;
+
+import com.barberease.dto.CursorPage;
+import com.barberease.exception.BadRequestException;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+    
+    @Test
+    void testEncodeDecode_RoundTrip() {
+        // Arrange
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 15, 10, 30);
+        PageCursor cursor = new PageCursor(timestamp, "65a4f1c2e4b0a1b2c3d4e5f6");
+        
+        // Act
+        PageCursor decoded = PageCursor.decode(cursor.encode());
+        
+        // Assert
+        assertEquals(timestamp, decoded.getTimestamp());
+        assertEquals(new ObjectId("65a4f1c2e4b0a1b2c3d4e5f6"), decoded.getIdValue());
+    }
+    
+    @Test
+    void testDecode_RejectsGarbage() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("not a cursor!"));
+        assertThrows(BadRequestException.class, () -> PageCursor.decode("bm8tc2VwYXJhdG9y"));
+    }
+    
+    @Test
+    void testClampLimit() {
+        // Act & Assert
+        assertEquals(PageCursor.DEFAULT_LIMIT, PageCursor.clampLimit(null));
+        assertEquals(PageCursor.MAX_LIMIT, PageCursor.clampLimit(10_000));
+        assertThrows(BadRequestException.class, () -> PageCursor.clampLimit(0));
+    }
+    
+    @Test
+    void testToPage_TrimsExtraRowIntoCursor() {
+        // Arrange
+        LocalDateTime base = LocalDateTime.of(2024, 1, 15, 10, 0);
+        List<LocalDateTime> fetched = List.of(base.minusHours(1), base.minusHours(2), base.minusHours(3));
+        
+        // Act
+        CursorPage<LocalDateTime> page = PageCursor.toPage(fetched, 2, time -> new PageCursor(time, "id"));
+        CursorPage<LocalDateTime> lastPage = PageCursor.toPage(fetched.subList(2, 3), 2, time -> new PageCursor(time, "id"));
+        
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(base.minusHours(2), PageCursor.decode(page.getNextCursor()).getTimestamp());
+        assertFalse(lastPage.isHasMore());
+        assertNull(lastPage.getNextCursor());
+    }
+}
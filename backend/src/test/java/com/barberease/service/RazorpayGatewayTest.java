@@ -0,0 +1,187 @@
+package com.barberease.service;
+
+import com.barberease.exception.PaymentGatewayException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the gateway against a local HTTP stub of the Razorpay orders API.
+ */
+class RazorpayGatewayTest {
+    
+    private HttpServer stub;
+    private SimpleMeterRegistry meterRegistry;
+    private RazorpayGateway gateway;
+    
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicReference<StubResponse> nextResponse = new AtomicReference<>();
+    private final AtomicReference<String> lastAuthorization = new AtomicReference<>();
+    private final AtomicReference<JSONObject> lastBody = new AtomicReference<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    private static class StubResponse {
+        final int status;
+        final String body;
+        final boolean hang;
+        
+        StubResponse(int status, String body, boolean hang) {
+            this.status = status;
+            this.body = body;
+            this.hang = hang;
+        }
+    }
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        stub.createContext("/v1/orders", this::handle);
+        stub.setExecutor(Executors.newCachedThreadPool());
+        stub.start();
+        
+        meterRegistry = new SimpleMeterRegistry();
+        gateway = new RazorpayGateway();
+        ReflectionTestUtils.setField(gateway, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(gateway, "keyId", "rzp_live_key");
+        ReflectionTestUtils.setField(gateway, "keySecret", "secret");
+        ReflectionTestUtils.setField(gateway, "baseUrl", "http://127.0.0.1:" + stub.getAddress().getPort() + "/v1");
+        ReflectionTestUtils.setField(gateway, "threads", 2);
+        ReflectionTestUtils.setField(gateway, "queueCapacity", 0);
+        ReflectionTestUtils.setField(gateway, "connectTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(gateway, "callTimeoutMs", 300L);
+        ReflectionTestUtils.setField(gateway, "failureThreshold", 2);
+        ReflectionTestUtils.setField(gateway, "openMs", 60_000L);
+        gateway.start();
+    }
+    
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        gateway.stop();
+        stub.stop(0);
+    }
+    
+    @Test
+    void testCreateOrder_PostsOrderWithBasicAuth() {
+        // Arrange
+        nextResponse.set(new StubResponse(200, "{\"id\":\"order_123\",\"status\":\"created\"}", false));
+        
+        // Act
+        String orderId = gateway.createOrder(30000, "INR", "booking_b1");
+        
+        // Assert
+        assertEquals("order_123", orderId);
+        assertEquals("Basic " + Base64.getEncoder().encodeToString("rzp_live_key:secret".getBytes(StandardCharsets.UTF_8)),
+                lastAuthorization.get());
+        assertEquals(30000, lastBody.get().getLong("amount"));
+        assertEquals("booking_b1", lastBody.get().getString("receipt"));
+        assertEquals(1, calls("success"));
+    }
+    
+    @Test
+    void testCreateOrder_RejectedRequestDoesNotTripTheBreaker() {
+        // Arrange
+        nextResponse.set(new StubResponse(400,
+                "{\"error\":{\"code\":\"BAD_REQUEST_ERROR\",\"description\":\"amount exceeds maximum amount allowed\"}}", false));
+        
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            PaymentGatewayException exception = assertThrows(PaymentGatewayException.class,
+                    () -> gateway.createOrder(1, "INR", "booking_b1"));
+            assertFalse(exception.isUnavailable());
+            assertTrue(exception.getMessage().contains("amount exceeds maximum"));
+        }
+        assertEquals(3, requests.get());
+        assertEquals(3, calls("client_error"));
+    }
+    
+    @Test
+    void testCreateOrder_TimesOutAndOpensCircuitAfterRepeatedFailures() {
+        // Arrange
+        nextResponse.set(new StubResponse(200, "{\"id\":\"order_late\"}", true));
+        
+        // Act
+        PaymentGatewayException timeout = assertThrows(PaymentGatewayException.class,
+                () -> gateway.createOrder(100, "INR", "booking_b1"));
+        nextResponse.set(new StubResponse(502, "Bad Gateway", false));
+        assertThrows(PaymentGatewayException.class, () -> gateway.createOrder(100, "INR", "booking_b1"));
+        int requestsBeforeOpen = requests.get();
+        PaymentGatewayException open = assertThrows(PaymentGatewayException.class,
+                () -> gateway.createOrder(100, "INR", "booking_b1"));
+        
+        // Assert
+        assertTrue(timeout.isUnavailable());
+        assertTrue(open.isUnavailable());
+        assertTrue(open.getRetryAfterSeconds() > 1);
+        assertEquals(requestsBeforeOpen, requests.get());
+        assertEquals(1, calls("timeout"));
+        assertEquals(1, calls("server_error"));
+        assertEquals(1, calls("circuit_open"));
+        assertEquals(2.0, meterRegistry.get("barberease.payment.gateway.circuit").gauge().value());
+    }
+    
+    @Test
+    void testCreateOrder_RefusedWhenBulkheadIsFull() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(gateway, "callTimeoutMs", 5000L);
+        nextResponse.set(new StubResponse(200, "{\"id\":\"order_slow\"}", true));
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> gateway.createOrder(100, "INR", "a"));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> gateway.createOrder(100, "INR", "b"));
+        while (requests.get() < 2) {
+            Thread.sleep(10);
+        }
+        
+        // Act
+        PaymentGatewayException busy = assertThrows(PaymentGatewayException.class,
+                () -> gateway.createOrder(100, "INR", "c"));
+        release.countDown();
+        
+        // Assert
+        assertTrue(busy.isUnavailable());
+        assertEquals(1, calls("bulkhead_full"));
+        assertEquals("order_slow", first.get(5, TimeUnit.SECONDS));
+        assertEquals("order_slow", second.get(5, TimeUnit.SECONDS));
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        lastAuthorization.set(exchange.getRequestHeaders().getFirst("Authorization"));
+        lastBody.set(new JSONObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)));
+        StubResponse response = nextResponse.get();
+        if (response.hang) {
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = response.body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(response.status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    
+    private long calls(String outcome) {
+        return meterRegistry.timer("barberease.payment.gateway.calls", "operation", "orders.create", "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,87 @@
+package com.barberease.service;
+
+import com.barberease.dto.ShopSummary;
+import com.barberease.model.Shop;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShopDirectoryTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    private ShopDirectory shopDirectory;
+    
+    @BeforeEach
+    void setUp() {
+        shopDirectory = new ShopDirectory();
+        ReflectionTestUtils.setField(shopDirectory, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(shopDirectory, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(shopDirectory, "maxAgeSeconds", 300L);
+        when(mongoTemplate.getCollectionName(Shop.class)).thenReturn("shops");
+    }
+    
+    @Test
+    void testGetSnapshot_ConcurrentReadersShareOneRebuild() throws Exception {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(ShopSummary.class), eq("shops"))).thenAnswer(invocation -> {
+            Thread.sleep(100);
+            return List.of(new ShopSummary());
+        });
+        ExecutorService readers = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ShopDirectory.Snapshot>> snapshots = new ArrayList<>();
+        
+        // Act
+        for (int i = 0; i < 8; i++) {
+            snapshots.add(readers.submit(() -> {
+                start.await();
+                return shopDirectory.getSnapshot();
+            }));
+        }
+        start.countDown();
+        ShopDirectory.Snapshot first = snapshots.get(0).get();
+        for (Future<ShopDirectory.Snapshot> snapshot : snapshots) {
+            assertSame(first, snapshot.get());
+        }
+        readers.shutdown();
+        
+        // Assert
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(ShopSummary.class), eq("shops"));
+    }
+    
+    @Test
+    void testRebuild_AlwaysReloadsAfterWrite() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(ShopSummary.class), eq("shops"))).thenReturn(List.of());
+        ShopDirectory.Snapshot before = shopDirectory.getSnapshot();
+        
+        // Act
+        ShopDirectory.Snapshot after = shopDirectory.rebuild();
+        
+        // Assert
+        assertNotSame(before, after);
+        assertSame(after, shopDirectory.getSnapshot());
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(ShopSummary.class), eq("shops"));
+    }
+}
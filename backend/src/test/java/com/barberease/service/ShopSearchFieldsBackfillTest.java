@@ -0,0 +1,87 @@
+package com.barberease.service;
+
+import com.barberease.model.Shop;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShopSearchFieldsBackfillTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @Mock
+    private BulkOperations bulk;
+    
+    @InjectMocks
+    private ShopSearchFieldsBackfill backfill;
+    
+    @Test
+    void testBackfill_ComputesMissingOpenHoursAndCategories() {
+        // Arrange
+        Shop.BusinessHours hours = new Shop.BusinessHours();
+        hours.setMonday("09:00-18:00");
+        Shop withServices = new Shop();
+        withServices.setId("shop1");
+        withServices.setBusinessHours(hours);
+        Shop withoutServices = new Shop();
+        withoutServices.setId("shop2");
+        withoutServices.setOpenIntervals(List.of());
+        
+        when(mongoTemplate.find(any(Query.class), eq(Shop.class))).thenReturn(List.of(withServices, withoutServices));
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(com.barberease.model.Service.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(
+                        new Document("_id", "shop1").append("categories", List.of("HAIRCUT", "BEARD_TRIM"))), new Document()));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Shop.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+        
+        // Act
+        long updated = backfill.backfill();
+        
+        // Assert
+        assertEquals(2, updated);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(any(Query.class), updates.capture());
+        
+        Document first = updates.getAllValues().get(0).getUpdateObject().get("$set", Document.class);
+        List<?> intervals = (List<?>) first.get("openIntervals");
+        assertEquals(1, intervals.size());
+        assertEquals(9 * 60, ((Shop.OpenInterval) intervals.get(0)).getStart());
+        assertEquals(EnumSet.of(com.barberease.model.Service.ServiceCategory.HAIRCUT,
+                com.barberease.model.Service.ServiceCategory.BEARD_TRIM), first.get("serviceCategories"));
+        
+        Document second = updates.getAllValues().get(1).getUpdateObject().get("$set", Document.class);
+        assertFalse(second.containsKey("openIntervals"));
+        assertEquals(EnumSet.noneOf(com.barberease.model.Service.ServiceCategory.class), second.get("serviceCategories"));
+    }
+    
+    @Test
+    void testBackfill_NothingToDo() {
+        // Arrange
+        when(mongoTemplate.find(any(Query.class), eq(Shop.class))).thenReturn(List.of());
+        
+        // Act & Assert
+        assertEquals(0, backfill.backfill());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Shop.class));
+    }
+}
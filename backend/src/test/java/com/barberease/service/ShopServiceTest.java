@@ -1,14 +1,26 @@
 package com.barberease.service;
 
+import com.barberease.exception.ConflictException;
 import com.barberease.model.Shop;
+import com.barberease.repository.CatalogueReadRepository;
+import com.barberease.repository.PartialUpdateRepository;
 import com.barberease.repository.ShopRepository;
+import com.barberease.repository.StaffRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -16,6 +28,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +37,27 @@ class ShopServiceTest {
     @Mock
     private ShopRepository shopRepository;
     
+    @Mock
+    private ShopDirectory shopDirectory;
+    
+    @Mock
+    private CatalogueSearchIndex catalogueSearchIndex;
+    
+    @Mock
+    private CatalogueReadRepository catalogueReadRepository;
+    
+    @Mock
+    private StaffRepository staffRepository;
+    
+    @Mock
+    private StaffScheduleService staffScheduleService;
+    
+    @Mock
+    private PartialUpdateRepository partialUpdates;
+    
+    @Spy
+    private OptimisticRetry optimisticRetry = new OptimisticRetry();
+    
     @InjectMocks
     private ShopService shopService;
     
@@ -42,6 +76,10 @@ class ShopServiceTest {
         testShop.setActive(true);
         testShop.setCreatedAt(LocalDateTime.now());
         testShop.setUpdatedAt(LocalDateTime.now());
+        testShop.setVersion(2L);
+        
+        ReflectionTestUtils.setField(optimisticRetry, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(optimisticRetry, "maxAttempts", 3);
     }
     
     @Test
@@ -57,6 +95,7 @@ class ShopServiceTest {
         assertEquals("Test Barbershop", result.getName());
         assertEquals(testOwnerId, result.getOwnerId());
         verify(shopRepository, times(1)).save(any(Shop.class));
+        verify(shopDirectory, times(1)).rebuild();
     }
     
     @Test
@@ -119,26 +158,111 @@ class ShopServiceTest {
         // Assert
         assertNotNull(result);
         verify(shopRepository, times(1)).save(any(Shop.class));
+        verify(shopDirectory, times(1)).rebuild();
     }
     
     @Test
-    void testDeleteShop_Success() {
+    void testUpdateShop_KeepsLocationWhenOmitted() {
+        // Arrange
+        GeoJsonPoint location = new GeoJsonPoint(77.59, 12.97);
+        testShop.setLocation(location);
+        Shop updatedDetails = new Shop();
+        updatedDetails.setName("Updated Shop");
+        
+        when(shopRepository.findById("shop123")).thenReturn(Optional.of(testShop));
+        when(shopRepository.save(any(Shop.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        Shop result = shopService.updateShop("shop123", updatedDetails);
+        
+        // Assert
+        assertEquals(location, result.getLocation());
+    }
+    
+    @Test
+    void testUpdateShop_KeepsClosedDatesWhenOmitted() {
         // Arrange
+        List<LocalDate> closedDates = List.of(LocalDate.of(2024, 12, 25));
+        testShop.setClosedDates(closedDates);
+        Shop updatedDetails = new Shop();
+        updatedDetails.setName("Updated Shop");
+        
         when(shopRepository.findById("shop123")).thenReturn(Optional.of(testShop));
-        when(shopRepository.save(any(Shop.class))).thenReturn(testShop);
+        when(shopRepository.save(any(Shop.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        Shop result = shopService.updateShop("shop123", updatedDetails);
+        
+        // Assert
+        assertEquals(closedDates, result.getClosedDates());
+    }
+    
+    @Test
+    void testUpdateShop_RetriesOnConcurrentWrite() {
+        // Arrange
+        Shop updatedDetails = new Shop();
+        updatedDetails.setName("Updated Shop");
+        
+        when(shopRepository.findById("shop123")).thenReturn(Optional.of(testShop));
+        when(shopRepository.save(any(Shop.class)))
+                .thenThrow(new OptimisticLockingFailureException("stale"))
+                .thenReturn(testShop);
+        
+        // Act
+        Shop result = shopService.updateShop("shop123", updatedDetails);
+        
+        // Assert
+        assertEquals("Updated Shop", result.getName());
+        verify(shopRepository, times(2)).findById("shop123");
+        verify(shopRepository, times(2)).save(any(Shop.class));
+    }
+    
+    @Test
+    void testUpdateShop_StaleVersionRejected() {
+        // Arrange
+        Shop updatedDetails = new Shop();
+        updatedDetails.setName("Updated Shop");
+        updatedDetails.setVersion(1L);
+        
+        when(shopRepository.findById("shop123")).thenReturn(Optional.of(testShop));
+        
+        // Act & Assert
+        ConflictException exception = assertThrows(ConflictException.class,
+                () -> shopService.updateShop("shop123", updatedDetails));
+        assertEquals(2L, exception.getCurrentVersion());
+        verify(shopRepository, never()).save(any(Shop.class));
+    }
+    
+    @Test
+    void testDeleteShop_Success() {
+        // Arrange
+        testShop.setActive(false);
+        when(partialUpdates.updateAndGet(any(Criteria.class), any(Update.class), eq(Shop.class))).thenReturn(testShop);
         
         // Act
         shopService.deleteShop("shop123");
         
         // Assert
-        verify(shopRepository, times(1)).save(any(Shop.class));
+        verify(shopRepository, never()).save(any(Shop.class));
+        verify(shopDirectory, times(1)).rebuild();
+        verify(catalogueSearchIndex).removeShop("shop123");
+    }
+    
+    @Test
+    void testDeleteShop_NotFound() {
+        // Arrange
+        when(partialUpdates.updateAndGet(any(Criteria.class), any(Update.class), eq(Shop.class))).thenReturn(null);
+        
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> shopService.deleteShop("missing"));
+        verify(shopDirectory, never()).rebuild();
     }
     
     @Test
     void testGetActiveShops_Success() {
         // Arrange
         List<Shop> activeShops = Arrays.asList(testShop);
-        when(shopRepository.findByActive(true)).thenReturn(activeShops);
+        when(catalogueReadRepository.findActiveShops()).thenReturn(activeShops);
         
         // Act
         List<Shop> result = shopService.getActiveShops();
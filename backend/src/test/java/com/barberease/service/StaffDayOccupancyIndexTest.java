@@ -0,0 +1,111 @@
+package com.barberease.service;
+
+import com.barberease.model.Booking;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaffDayOccupancyIndexTest {
+    
+    @Test
+    void testOverlaps_UsesEachBookingsOwnEnd() {
+        // Arrange
+        StaffDayOccupancyIndex.DayOccupancy day = new StaffDayOccupancyIndex.DayOccupancy();
+        day.add("long", 600, 720);
+        day.add("short", 780, 795);
+        
+        // Act & Assert
+        assertTrue(day.overlaps(700, 730));
+        assertFalse(day.overlaps(720, 780));
+        assertFalse(day.overlaps(795, 825));
+        assertTrue(day.overlaps(760, 790));
+    }
+    
+    @Test
+    void testOverlaps_RemovedBookingFreesItsInterval() {
+        // Arrange
+        StaffDayOccupancyIndex.DayOccupancy day = new StaffDayOccupancyIndex.DayOccupancy();
+        day.add("booking1", 600, 660);
+        
+        // Act
+        day.remove("booking1");
+        
+        // Assert
+        assertFalse(day.overlaps(600, 660));
+    }
+    
+    @Test
+    void testPrime_IncludesBookingRunningPastMidnight() {
+        // Arrange
+        StaffDayOccupancyIndex index = newIndex(100);
+        Booking overnight = booking("overnight", LocalDateTime.of(2024, 1, 15, 23, 0), 120);
+        Booking evening = booking("evening", LocalDateTime.of(2024, 1, 15, 20, 0), 60);
+        
+        // Act
+        StaffDayOccupancyIndex.DayOccupancy day = index.prime("staff1", LocalDate.of(2024, 1, 16), List.of(overnight, evening));
+        
+        // Assert
+        assertTrue(day.overlaps(0, 30));
+        assertTrue(day.overlaps(45, 75));
+        assertFalse(day.overlaps(60, 90));
+    }
+    
+    @Test
+    void testAdd_OccupiesNextDayAfterMidnight() {
+        // Arrange
+        StaffDayOccupancyIndex index = newIndex(100);
+        LocalDate nextDay = LocalDate.of(2024, 1, 16);
+        index.prime("staff1", LocalDate.of(2024, 1, 15), List.of());
+        StaffDayOccupancyIndex.DayOccupancy day = index.prime("staff1", nextDay, List.of());
+        Booking overnight = booking("overnight", LocalDateTime.of(2024, 1, 15, 23, 30), 90);
+        
+        // Act
+        index.add(overnight);
+        
+        // Assert
+        assertTrue(day.overlaps(30, 60));
+        assertFalse(day.overlaps(60, 90));
+        index.remove(overnight);
+        assertFalse(day.overlaps(30, 60));
+    }
+    
+    @Test
+    void testPrime_HoldsAtMostMaxDays() {
+        // Arrange
+        StaffDayOccupancyIndex index = newIndex(2);
+        
+        // Act
+        for (int i = 0; i < 5; i++) {
+            index.prime("staff1", LocalDate.of(2024, 1, 15).plusDays(i), List.of());
+        }
+        
+        // Assert
+        Cache<?, ?> days = (Cache<?, ?>) ReflectionTestUtils.getField(index, "days");
+        days.cleanUp();
+        assertEquals(2, days.estimatedSize());
+    }
+    
+    private static StaffDayOccupancyIndex newIndex(int maxDays) {
+        StaffDayOccupancyIndex index = new StaffDayOccupancyIndex();
+        ReflectionTestUtils.setField(index, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(index, "maxDays", maxDays);
+        ReflectionTestUtils.setField(index, "maxBookingMinutes", 480);
+        index.init();
+        return index;
+    }
+    
+    private static Booking booking(String id, LocalDateTime start, int minutes) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setStaffId("staff1");
+        booking.setAppointmentDateTime(start);
+        booking.setEndDateTime(start.plusMinutes(minutes));
+        return booking;
+    }
+}
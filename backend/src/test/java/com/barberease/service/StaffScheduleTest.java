@@ -0,0 +1,103 @@
+package com.barberease.service;
+
+import com.barberease.model.Shop;
+import com.barberease.model.Staff;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaffScheduleTest {
+    
+    // A Monday
+    private static final LocalDate MONDAY = LocalDate.of(2024, 6, 3);
+    
+    private Shop shop;
+    private Staff staff;
+    
+    @BeforeEach
+    void setUp() {
+        Shop.BusinessHours hours = new Shop.BusinessHours();
+        hours.setMonday("09:00-18:00");
+        hours.setTuesday("Closed");
+        shop = new Shop();
+        shop.setBusinessHours(hours);
+        shop.setOpenIntervals(OpeningHours.weeklyIntervals(hours));
+        staff = new Staff();
+        staff.setId("staff1");
+    }
+    
+    @Test
+    void testCompile_StaffHoursAreLimitedToShopHours() {
+        // Arrange
+        staff.setAvailability(Map.of(
+                "monday", List.of(new Staff.TimeSlot("08:00", "12:00"), new Staff.TimeSlot("13:00", "19:00")),
+                "tuesday", List.of(new Staff.TimeSlot("09:00", "17:00"))));
+        
+        // Act
+        StaffSchedule schedule = StaffSchedule.compile(staff, shop);
+        
+        // Assert
+        BitSet monday = schedule.workingMinutes(MONDAY);
+        assertEquals(540, monday.nextSetBit(0));
+        assertEquals(720, monday.nextClearBit(540));
+        assertEquals(780, monday.nextSetBit(720));
+        assertEquals(1080, monday.nextClearBit(780));
+        assertTrue(schedule.workingMinutes(MONDAY.plusDays(1)).isEmpty());
+    }
+    
+    @Test
+    void testCompile_NoStaffAvailabilityFollowsShopHours() {
+        // Act
+        StaffSchedule schedule = StaffSchedule.compile(staff, shop);
+        
+        // Assert
+        BitSet monday = schedule.workingMinutes(MONDAY);
+        assertEquals(540, monday.nextSetBit(0));
+        assertEquals(1080, monday.nextClearBit(540));
+        assertTrue(schedule.workingMinutes(MONDAY.plusDays(2)).isEmpty());
+    }
+    
+    @Test
+    void testCompile_NoHoursAnywhereUsesDefaultDay() {
+        // Arrange
+        Shop openShop = new Shop();
+        
+        // Act
+        StaffSchedule schedule = StaffSchedule.compile(staff, openShop);
+        
+        // Assert
+        BitSet sunday = schedule.workingMinutes(MONDAY.plusDays(6));
+        assertEquals(StaffSchedule.DEFAULT_START_MINUTE, sunday.nextSetBit(0));
+        assertEquals(StaffSchedule.DEFAULT_END_MINUTE, sunday.nextClearBit(StaffSchedule.DEFAULT_START_MINUTE));
+        assertEquals(30, schedule.getSlotMinutes());
+        assertEquals(30, schedule.getMaxAdvanceBookingDays());
+    }
+    
+    @Test
+    void testCompile_LeaveAndHolidaysReplaceTheRegularDay() {
+        // Arrange
+        LocalDate halfDay = MONDAY.plusWeeks(1);
+        LocalDate holiday = MONDAY.plusWeeks(2);
+        staff.setExceptions(List.of(
+                new Staff.ScheduleException(MONDAY, List.of(), "Leave"),
+                new Staff.ScheduleException(halfDay, List.of(new Staff.TimeSlot("07:00", "13:00")), "Half day")));
+        shop.setClosedDates(List.of(holiday));
+        
+        // Act
+        StaffSchedule schedule = StaffSchedule.compile(staff, shop);
+        
+        // Assert
+        assertTrue(schedule.workingMinutes(MONDAY).isEmpty());
+        BitSet half = schedule.workingMinutes(halfDay);
+        assertEquals(540, half.nextSetBit(0));
+        assertEquals(780, half.nextClearBit(540));
+        assertTrue(schedule.workingMinutes(holiday).isEmpty());
+        assertFalse(schedule.workingMinutes(MONDAY.plusWeeks(3)).isEmpty());
+    }
+}
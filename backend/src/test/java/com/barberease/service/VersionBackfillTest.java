@@ -0,0 +1,61 @@
+package com.barberease.service;
+
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VersionBackfillTest {
+    
+    @Mock
+    private MongoTemplate mongoTemplate;
+    
+    @InjectMocks
+    private VersionBackfill backfill;
+    
+    @Test
+    void testBackfill_SetsVersionZeroWhereMissing() {
+        // Arrange
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), anyString()))
+                .thenReturn(UpdateResult.acknowledged(2, 2L, null));
+        
+        // Act
+        long updated = backfill.backfill();
+        
+        // Assert
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<String> collection = ArgumentCaptor.forClass(String.class);
+        verify(mongoTemplate, times(5)).updateMulti(query.capture(), update.capture(), collection.capture());
+        assertEquals(List.of("shops", "staff", "services", "bookings", "payments"), collection.getAllValues());
+        assertEquals(new Document("version", new Document("$exists", false)), query.getValue().getQueryObject());
+        assertEquals(0L, update.getValue().getUpdateObject().get("$set", Document.class).get("version"));
+        assertEquals(10, updated);
+    }
+}
@@ -11,61 +11,56 @@ db.createCollection('services');
 db.createCollection('bookings');
 db.createCollection('payments');
 db.createCollection('notifications');
+db.createCollection('slot_claims');
 
 // Create indexes for performance
+// Field names must match the stored names: properties mapped with @Field are
+// snake_case (shop_id, staff_id, user_id, ...). On startup the backend's index
+// reconciler creates the indexes of its hot queries and those declared on the
+// entities that are missing here, but only after it is already serving requests,
+// so this list must cover the constraints bookings depend on from the start.
 
 // Users indexes
 db.users.createIndex({ email: 1 }, { unique: true });
-db.users.createIndex({ role: 1 });
-db.users.createIndex({ active: 1 });
-db.users.createIndex({ shopId: 1 });
 
 // Shops indexes
-db.shops.createIndex({ ownerId: 1 });
-db.shops.createIndex({ active: 1 });
-db.shops.createIndex({ name: 1 });
-db.shops.createIndex({ ownerId: 1, active: 1 });
+db.shops.createIndex({ owner_id: 1 });
+db.shops.createIndex({ active: 1, name: 1 });
+db.shops.createIndex({ location: '2dsphere' });
 
 // Staff indexes
-db.staff.createIndex({ shopId: 1 });
-db.staff.createIndex({ userId: 1 }, { unique: true, sparse: true });
-db.staff.createIndex({ active: 1 });
-db.staff.createIndex({ shopId: 1, active: 1 });
+db.staff.createIndex({ shop_id: 1, active: 1 });
+db.staff.createIndex({ user_id: 1 }, { unique: true, sparse: true });
 
 // Services indexes
-db.services.createIndex({ shopId: 1 });
-db.services.createIndex({ active: 1 });
 db.services.createIndex({ shopId: 1, active: 1 });
 db.services.createIndex({ category: 1, active: 1 });
 
 // Bookings indexes (most important for performance)
-db.bookings.createIndex({ userId: 1 });
-db.bookings.createIndex({ shopId: 1 });
-db.bookings.createIndex({ staffId: 1 });
-db.bookings.createIndex({ appointmentDateTime: 1 });
-db.bookings.createIndex({ status: 1 });
-db.bookings.createIndex({ paymentStatus: 1 });
-
-// Compound indexes for common queries
-db.bookings.createIndex({ shopId: 1, appointmentDateTime: 1 });
-db.bookings.createIndex({ staffId: 1, appointmentDateTime: 1 });
-db.bookings.createIndex({ userId: 1, status: 1 });
-db.bookings.createIndex({ shopId: 1, status: 1, appointmentDateTime: 1 });
+db.bookings.createIndex({ staff_id: 1, appointmentDateTime: 1, endDateTime: 1 });
+db.bookings.createIndex({ shop_id: 1, appointmentDateTime: -1, _id: -1 });
+db.bookings.createIndex({ user_id: 1, appointmentDateTime: -1, _id: -1 });
+db.bookings.createIndex({ notificationSent: 1, appointmentDateTime: 1 });
 
 // Payments indexes
-db.payments.createIndex({ bookingId: 1 });
-db.payments.createIndex({ userId: 1 });
-db.payments.createIndex({ status: 1 });
+db.payments.createIndex({ booking_id: 1 });
+db.payments.createIndex({ user_id: 1, createdAt: -1, _id: -1 });
 db.payments.createIndex({ razorpayOrderId: 1 }, { unique: true, sparse: true });
 db.payments.createIndex({ razorpayPaymentId: 1 }, { unique: true, sparse: true });
-db.payments.createIndex({ createdAt: -1 });
 
 // Notifications indexes
-db.notifications.createIndex({ userId: 1 });
-db.notifications.createIndex({ bookingId: 1 });
-db.notifications.createIndex({ status: 1 });
-db.notifications.createIndex({ type: 1 });
-db.notifications.createIndex({ createdAt: -1 });
+db.notifications.createIndex({ user_id: 1, createdAt: -1, _id: -1 });
+db.notifications.createIndex({ booking_id: 1 });
+db.notifications.createIndex({ status: 1, nextAttemptAt: 1 });
+
+// Slot claim indexes: the unique index is what stops two nodes from booking the
+// same slot, and the TTL index removes claims once the slot has passed
+db.slot_claims.createIndex({ staff_id: 1, slotStart: 1 }, { name: 'staff_slot_unique', unique: true });
+db.slot_claims.createIndex({ booking_id: 1 });
+db.slot_claims.createIndex({ expireAt: 1 }, { expireAfterSeconds: 0 });
+
+// Daily rollup indexes
+db.daily_rollups.createIndex({ shop_id: 1, scope: 1, day: 1 });
 
 print('BarberEase database initialized successfully!');
 print('Indexes created for optimal performance.');